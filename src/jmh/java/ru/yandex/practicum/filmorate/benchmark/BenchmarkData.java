@@ -0,0 +1,106 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Генератор тестовой базы для бенчмарков.
+ * rows — число строк в likes и в friends; фильмов и пользователей в десять раз меньше.
+ */
+public final class BenchmarkData {
+
+    public static final int LINKS_PER_ENTITY = 10;
+    private static final int INSERT_BATCH = 5_000;
+    private static final int GENRES = 6;
+    private static final int RATINGS = 5;
+
+    private BenchmarkData() {
+    }
+
+    public static int entities(int rows) {
+        return Math.max(100, rows / LINKS_PER_ENTITY);
+    }
+
+    public static HikariDataSource createDatabase(String name) {
+        // Тот же пул, что и в приложении: без него каждый запрос открывал бы новое соединение
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1;QUERY_CACHE_SIZE=64");
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(
+                new ClassPathResource("schema.sql"), new ClassPathResource("data.sql"));
+        populator.execute(dataSource);
+        return dataSource;
+    }
+
+    public static void seed(JdbcTemplate jdbcTemplate, int rows) {
+        int entities = entities(rows);
+        Random random = new Random(42);
+
+        List<Object[]> users = new ArrayList<>();
+        List<Object[]> films = new ArrayList<>();
+        for (int id = 1; id <= entities; id++) {
+            users.add(new Object[]{id, "Пользователь " + id, "user" + id, "user" + id + "@mail.ru",
+                    Date.valueOf(LocalDate.of(1970, 1, 1).plusDays(id % 15_000))});
+            films.add(new Object[]{id, "Фильм " + id, "Описание фильма " + id, 60 + id % 120,
+                    Date.valueOf(LocalDate.of(1950, 1, 1).plusDays(id % 25_000)), 1 + id % RATINGS});
+        }
+        batchInsert(jdbcTemplate, "INSERT INTO users (user_id, user_name, login, email, birthday) "
+                + "VALUES (?, ?, ?, ?, ?)", users);
+        batchInsert(jdbcTemplate, "INSERT INTO films (film_id, film_name, description, duration, release_date, "
+                + "rating_id) VALUES (?, ?, ?, ?, ?, ?)", films);
+
+        List<Object[]> filmGenres = new ArrayList<>();
+        for (int id = 1; id <= entities; id++) {
+            int first = 1 + id % GENRES;
+            filmGenres.add(new Object[]{id, first});
+            if (id % 2 == 0) {
+                filmGenres.add(new Object[]{id, 1 + (first % GENRES)});
+            }
+        }
+        batchInsert(jdbcTemplate, "INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)", filmGenres);
+
+        batchInsert(jdbcTemplate, "INSERT INTO likes (film_id, user_id) VALUES (?, ?)",
+                links(random, entities, rows));
+        batchInsert(jdbcTemplate, "INSERT INTO friends (user_id, friend_id, status) VALUES (?, ?, TRUE)",
+                links(random, entities, rows));
+
+        jdbcTemplate.execute("ALTER TABLE users ALTER COLUMN user_id RESTART WITH " + (entities + 1));
+        jdbcTemplate.execute("ALTER TABLE films ALTER COLUMN film_id RESTART WITH " + (entities + 1));
+    }
+
+    // Пары (from, to) без повторов и петель, по rows / entities связей на каждый from
+    private static List<Object[]> links(Random random, int entities, int rows) {
+        int perEntity = Math.max(1, rows / entities);
+        List<Object[]> result = new ArrayList<>(rows);
+        for (int from = 1; from <= entities && result.size() < rows; from++) {
+            Set<Integer> targets = new HashSet<>();
+            while (targets.size() < perEntity) {
+                int to = 1 + random.nextInt(entities);
+                if (to != from) {
+                    targets.add(to);
+                }
+            }
+            for (int to : targets) {
+                result.add(new Object[]{from, to});
+            }
+        }
+        return result;
+    }
+
+    private static void batchInsert(JdbcTemplate jdbcTemplate, String sqlQuery, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += INSERT_BATCH) {
+            jdbcTemplate.batchUpdate(sqlQuery, rows.subList(from, Math.min(from + INSERT_BATCH, rows.size())));
+        }
+    }
+}
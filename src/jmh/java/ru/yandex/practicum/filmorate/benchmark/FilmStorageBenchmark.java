@@ -0,0 +1,166 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFacets;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.RatingMpa;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FilmStorageBenchmark {
+
+    private static final int IMPORT_SIZE = 1000;
+    private static final FilmFilter FILTER = filter();
+
+    @Benchmark
+    public List<Film> getAllFilms(StorageState state) {
+        return state.filmStorage.getAllFilms();
+    }
+
+    @Benchmark
+    public Film getFilmById(StorageState state) {
+        return state.filmStorage.getFilmById(state.randomId());
+    }
+
+    @Benchmark
+    public Film getFilmByIdUncached(StorageState state) {
+        return state.uncachedFilmStorage.getFilmById(state.randomId());
+    }
+
+    @Benchmark
+    public Film getFilmByIdInMemory(StorageState state) {
+        return state.memoryFilmStorage.getFilmById(state.randomId());
+    }
+
+    @Benchmark
+    public List<Film> getMostPopularFilms(StorageState state) {
+        return state.filmStorage.getMostPopularFilms(10);
+    }
+
+    @Benchmark
+    public List<Film> getMostPopularFilmsByGenre(StorageState state) {
+        return state.filmStorage.getMostPopularFilms(10, 2, null);
+    }
+
+    // Жанр и год вместе: обход меньшего из двух рейтингов с проверкой второго условия
+    @Benchmark
+    public List<Film> getMostPopularFilmsByGenreAndYear(StorageState state) {
+        return state.filmStorage.getMostPopularFilms(10, 2, 1990);
+    }
+
+    @Benchmark
+    public List<Film> getMostPopularFilmsInMemory(StorageState state) {
+        return state.memoryFilmStorage.getMostPopularFilms(10);
+    }
+
+    // Пара лайк/снятие лайка, чтобы не упираться в первичный ключ likes между итерациями
+    @Benchmark
+    public void addLike(StorageState state) {
+        int filmId = state.randomId();
+        int userId = state.randomId();
+        state.likeStorage.deleteLike(filmId, userId);
+        state.likeStorage.addLike(filmId, userId);
+    }
+
+    @Benchmark
+    public Film createFilm(StorageState state) {
+        return state.filmStorage.createFilm(importBatch(1).get(0));
+    }
+
+    // Время в пересчёте на один фильм: по одному createFilm против одного createFilms на всю пачку
+    @Benchmark
+    @OperationsPerInvocation(IMPORT_SIZE)
+    public void createFilmOneByOne(StorageState state) {
+        importBatch(IMPORT_SIZE).forEach(state.filmStorage::createFilm);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(IMPORT_SIZE)
+    public List<Film> createFilmsInBatch(StorageState state) {
+        return state.filmStorage.createFilms(importBatch(IMPORT_SIZE));
+    }
+
+    // Совместные лайки: при rows=1000000 это миллион лайков
+    @Benchmark
+    public int[] getSimilarFilms(StorageState state) {
+        return state.coLikeIndex.getSimilar(state.randomId(), 10);
+    }
+
+    @Benchmark
+    public int[] getRecommendations(StorageState state) {
+        return state.coLikeIndex.getRecommendations(state.randomId(), 10);
+    }
+
+    @Benchmark
+    public void addLikeWithCoLikes(StorageState state) {
+        int filmId = state.randomId();
+        int userId = state.randomId();
+        state.coLikeIndex.removeLike(filmId, userId);
+        state.coLikeIndex.addLike(filmId, userId);
+    }
+
+    // Полная перестройка матрицы из таблицы likes, как при старте приложения
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void rebuildCoLikeIndex(StorageState state) {
+        state.likeStorage.rebuildCoLikeIndex();
+    }
+
+    // Редкий термин (номер фильма) вместе с термином, который есть у всех фильмов каталога
+    @Benchmark
+    public int[] searchFilms(StorageState state) {
+        return state.searchIndex.search("фильм " + state.randomId(), 0, 20);
+    }
+
+    // Только термин, который есть у всех фильмов: совпадений столько же, сколько фильмов в каталоге
+    @Benchmark
+    public int[] searchCommonTerm(StorageState state) {
+        return state.searchIndex.search("фильм", 0, 20);
+    }
+
+    // Два жанра через ИЛИ, рейтинг и диапазон лет с неполными десятилетиями по краям
+    @Benchmark
+    public int[] filterFilms(StorageState state) {
+        return state.facetIndex.filter(FILTER, state.randomId(), 100);
+    }
+
+    @Benchmark
+    public FilmFacets getFacets(StorageState state) {
+        return state.facetIndex.facets(FILTER);
+    }
+
+    private static FilmFilter filter() {
+        FilmFilter filter = new FilmFilter();
+        filter.setGenre(List.of(2, 3));
+        filter.setMpa(List.of(1));
+        filter.setYearFrom(1975);
+        filter.setYearTo(2003);
+        return filter;
+    }
+
+    private static List<Film> importBatch(int size) {
+        return IntStream.range(0, size)
+                .mapToObj(i -> Film.builder()
+                        .name("Imported " + i)
+                        .description("Description " + i)
+                        .releaseDate(LocalDate.of(2000, 1, 1).plusDays(i))
+                        .duration(90L + i % 60)
+                        .mpa(new RatingMpa(1 + i % 5, null))
+                        .genres(new LinkedHashSet<>(List.of(new Genre(1 + i % 6, null), new Genre(1 + (i + 3) % 6, null))))
+                        .build())
+                .toList();
+    }
+}
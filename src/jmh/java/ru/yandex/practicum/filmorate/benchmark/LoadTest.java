@@ -0,0 +1,172 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Нагрузочный тест: поднимает приложение на платформенных, а затем на виртуальных потоках
+ * поверх одинаково засеянной базы и сравнивает пропускную способность и хвосты задержек.
+ * Клиенты работают без пауз, смесь запросов: фильм по id, популярные, друзья, постраничный
+ * список фильмов, постановка и снятие лайка.
+ * <p>
+ * Аргументы: rows (как в бенчмарках), число одновременных клиентов, секунды замера.
+ */
+public final class LoadTest {
+
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Integer.parseInt(args[2]) : 20);
+
+        List<String> report = new ArrayList<>();
+        report.add(String.format("rows=%d, клиентов=%d, замер %d с", rows, clients, duration.toSeconds()));
+        report.add(String.format("%-10s %10s %10s %10s %10s %10s %8s",
+                "режим", "запр/с", "p50, мс", "p99, мс", "p99.9, мс", "max, мс", "ошибок"));
+        for (boolean virtual : new boolean[]{false, true}) {
+            report.add(run(virtual, rows, clients, duration));
+        }
+        report.forEach(System.out::println);
+    }
+
+    private static String run(boolean virtual, int rows, int clients, Duration duration) throws Exception {
+        String database = virtual ? "load_virtual" : "load_platform";
+        try (HikariDataSource dataSource = BenchmarkData.createDatabase(database)) {
+            BenchmarkData.seed(new JdbcTemplate(dataSource), rows);
+        }
+        // Аргументами, а не через properties(): те лишь задают умолчания, и application.properties их перекрывает
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(FilmorateApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1;QUERY_CACHE_SIZE=64",
+                        "--spring.sql.init.mode=never",
+                        "--spring.threads.virtual.enabled=" + virtual,
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN");
+        try {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            Workload workload = new Workload(port, BenchmarkData.entities(rows));
+            workload.run(clients, WARMUP);
+            Result result = workload.run(clients, duration);
+            return String.format("%-10s %10.0f %10.2f %10.2f %10.2f %10.2f %8d",
+                    virtual ? "virtual" : "platform",
+                    result.latencies.length / (double) duration.toSeconds(),
+                    result.percentile(0.5), result.percentile(0.99), result.percentile(0.999),
+                    result.percentile(1.0), result.errors);
+        } finally {
+            context.close();
+        }
+    }
+
+    private record Workload(int port, int entities) {
+
+        Result run(int clients, Duration duration) throws Exception {
+            long deadline = System.nanoTime() + duration.toNanos();
+            List<Future<Result>> futures = new ArrayList<>(clients);
+            try (HttpClient client = HttpClient.newBuilder()
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .build();
+                 ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < clients; i++) {
+                    futures.add(executor.submit(() -> loop(client, deadline)));
+                }
+            }
+            List<Result> results = new ArrayList<>(clients);
+            for (Future<Result> future : futures) {
+                results.add(future.get());
+            }
+            return Result.merge(results);
+        }
+
+        private Result loop(HttpClient client, long deadline) {
+            long[] latencies = new long[1024];
+            int count = 0;
+            int errors = 0;
+            while (System.nanoTime() < deadline) {
+                HttpRequest request = nextRequest();
+                long started = System.nanoTime();
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() >= 500) {
+                        errors++;
+                    }
+                } catch (Exception e) {
+                    errors++;
+                }
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = System.nanoTime() - started;
+            }
+            return new Result(Arrays.copyOf(latencies, count), errors);
+        }
+
+        private HttpRequest nextRequest() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int id = 1 + random.nextInt(entities);
+            int other = 1 + random.nextInt(entities);
+            return switch (random.nextInt(6)) {
+                case 0 -> get("/films/" + id);
+                case 1 -> get("/films/popular?count=10");
+                case 2 -> get("/users/" + id + "/friends");
+                case 3 -> get("/films?after=" + id + "&limit=20");
+                case 4 -> request("PUT", "/films/" + id + "/like/" + other);
+                default -> request("DELETE", "/films/" + id + "/like/" + other);
+            };
+        }
+
+        private HttpRequest get(String path) {
+            return request("GET", path);
+        }
+
+        private HttpRequest request(String method, String path) {
+            return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                    .method(method, HttpRequest.BodyPublishers.noBody())
+                    .build();
+        }
+    }
+
+    private record Result(long[] latencies, int errors) {
+
+        static Result merge(List<Result> results) {
+            long[] merged = new long[results.stream().mapToInt(result -> result.latencies.length).sum()];
+            int offset = 0;
+            int errors = 0;
+            for (Result result : results) {
+                System.arraycopy(result.latencies, 0, merged, offset, result.latencies.length);
+                offset += result.latencies.length;
+                errors += result.errors;
+            }
+            Arrays.sort(merged);
+            return new Result(merged, errors);
+        }
+
+        double percentile(double quantile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * latencies.length) - 1;
+            return latencies[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.durability.WalEntry;
+import ru.yandex.practicum.filmorate.durability.WalReplayer;
+import ru.yandex.practicum.filmorate.durability.WriteAheadLog;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Время восстановления базы после рестарта: сначала только из журнала с заданным числом лайков,
+ * затем из снимка той же базы. Фильмы и пользователи засеяны заранее, как в бенчмарках.
+ * <p>
+ * Аргумент: число лайков в журнале.
+ */
+public final class RecoveryTest {
+
+    private static final int APPEND_BATCH = 10_000;
+
+    private RecoveryTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int likes = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int entities = BenchmarkData.entities(likes);
+        Path dir = Files.createTempDirectory("filmorate-wal");
+
+        try (HikariDataSource dataSource = BenchmarkData.createDatabase("recovery_log")) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            BenchmarkData.seed(jdbcTemplate, likes);
+            jdbcTemplate.update("DELETE FROM likes");
+
+            // Пары без повторов: фильм пробегает все id, пользователь сдвигается на каждом круге
+            WriteAheadLog wal = new WriteAheadLog(jdbcTemplate, dir, false, Duration.ZERO, false, () -> { });
+            wal.start();
+            long started = System.nanoTime();
+            List<WalEntry> batch = new ArrayList<>(APPEND_BATCH);
+            for (int i = 0; i < likes; i++) {
+                batch.add(WalEntry.pair(WalEntry.Type.LIKE_ADD, 1 + i % entities, 1 + i / entities));
+                if (batch.size() == APPEND_BATCH) {
+                    wal.appendAll(batch);
+                    batch.clear();
+                }
+            }
+            wal.appendAll(batch);
+            wal.stop();
+            System.out.printf("журнал: %d записей записано за %d мс, %d байт%n", likes,
+                    Duration.ofNanos(System.nanoTime() - started).toMillis(), directorySize(dir));
+
+            report("из журнала", WalReplayer.recover(dataSource, dir), jdbcTemplate);
+
+            wal = new WriteAheadLog(jdbcTemplate, dir, false, Duration.ZERO, false, () -> { });
+            wal.start();
+            wal.snapshot();
+            wal.stop();
+            System.out.printf("снимок: %.0f мс, %d байт%n", wal.getLastSnapshotMillis(), directorySize(dir));
+            // DB_CLOSE_DELAY=-1 держит базу в памяти и после закрытия пула, а восстановлению из снимка нужна куча
+            jdbcTemplate.execute("SHUTDOWN");
+        }
+
+        try (HikariDataSource dataSource = BenchmarkData.createDatabase("recovery_snapshot")) {
+            report("из снимка", WalReplayer.recover(dataSource, dir), new JdbcTemplate(dataSource));
+        }
+    }
+
+    private static void report(String source, WalReplayer.Recovery recovery, JdbcTemplate jdbcTemplate) {
+        Integer restored = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM likes", Integer.class);
+        long millis = Math.max(1, recovery.elapsed().toMillis());
+        System.out.printf("восстановление %s: %d мс, записей журнала %d (%d в секунду), лайков в базе %d%n",
+                source, millis, recovery.entries(), recovery.entries() * 1000 / millis, restored);
+    }
+
+    private static long directorySize(Path dir) throws Exception {
+        try (var files = Files.list(dir)) {
+            return files.mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.storage.film.CoLikeIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmCache;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.film.FilmFacetIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.PopularFilmsIndex;
+import ru.yandex.practicum.filmorate.storage.like.LikeDbStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeWriteBehindQueue;
+import ru.yandex.practicum.filmorate.storage.user.FriendsIndex;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Хранилища, собранные вручную поверх засеянной H2 без Spring-контекста
+@State(Scope.Benchmark)
+public class StorageState {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    public HikariDataSource dataSource;
+    public JdbcTemplate jdbcTemplate;
+    public FilmDbStorage filmStorage;
+    public FilmDbStorage uncachedFilmStorage;
+    public UserDbStorage userStorage;
+    public LikeDbStorage likeStorage;
+    public CoLikeIndex coLikeIndex;
+    public FilmSearchIndex searchIndex;
+    public FilmFacetIndex facetIndex;
+    public InMemoryFilmStorage memoryFilmStorage;
+    public InMemoryUserStorage memoryUserStorage;
+    public int entities;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = BenchmarkData.createDatabase("bench" + rows);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        // Как spring.jdbc.template.fetch-size в приложении
+        jdbcTemplate.setFetchSize(500);
+        BenchmarkData.seed(jdbcTemplate, rows);
+        entities = BenchmarkData.entities(rows);
+
+        PopularFilmsIndex popularFilmsIndex = new PopularFilmsIndex();
+        coLikeIndex = new CoLikeIndex();
+        searchIndex = new FilmSearchIndex();
+        facetIndex = new FilmFacetIndex();
+        filmStorage = new FilmDbStorage(jdbcTemplate, popularFilmsIndex, coLikeIndex, searchIndex, facetIndex,
+                new FilmCache(10_000, Duration.ofMinutes(10)));
+        filmStorage.loadKnownIds();
+        filmStorage.loadSearchIndex();
+        filmStorage.loadFacetIndex();
+        uncachedFilmStorage = new FilmDbStorage(jdbcTemplate, new PopularFilmsIndex(), new CoLikeIndex(),
+                new FilmSearchIndex(), new FilmFacetIndex(), new FilmCache(0, Duration.ZERO));
+
+        LikeWriteBehindQueue writeBehindQueue = new LikeWriteBehindQueue(jdbcTemplate, popularFilmsIndex,
+                coLikeIndex, false, 0, 0, Duration.ZERO);
+        likeStorage = new LikeDbStorage(jdbcTemplate, popularFilmsIndex, coLikeIndex, writeBehindQueue);
+        likeStorage.rebuildPopularFilmsIndex();
+        likeStorage.rebuildCoLikeIndex();
+
+        userStorage = new UserDbStorage(jdbcTemplate, new FriendsIndex());
+        userStorage.loadKnownIds();
+        userStorage.loadFriendsIndex();
+
+        // Те же данные в хранилищах профиля memory; id выдаются подряд и совпадают с БД
+        memoryFilmStorage = new InMemoryFilmStorage(new PopularFilmsIndex(), new CoLikeIndex(),
+                new FilmSearchIndex(), new FilmFacetIndex());
+        filmStorage.exportFilms(memoryFilmStorage::createFilm);
+        jdbcTemplate.query("SELECT film_id, user_id FROM likes", rs -> {
+            memoryFilmStorage.addLike(rs.getInt("film_id"), rs.getInt("user_id"));
+        });
+        FriendsIndex memoryFriends = new FriendsIndex();
+        memoryFriends.rebuild(jdbcTemplate.query("SELECT user_id, friend_id FROM friends",
+                (rs, rowNum) -> new int[]{rs.getInt("user_id"), rs.getInt("friend_id")}));
+        memoryUserStorage = new InMemoryUserStorage(memoryFriends);
+        userStorage.getUsersPage(0, Integer.MAX_VALUE).forEach(memoryUserStorage::createUser);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+        dataSource.close();
+    }
+
+    public int randomId() {
+        return 1 + ThreadLocalRandom.current().nextInt(entities);
+    }
+}
@@ -0,0 +1,150 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.jdbc.support.rowset.SqlRowSet;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.FriendsIndex;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UserStorageBenchmark {
+
+    // Эталонное пересечение средствами SQL для сравнения с индексом друзей
+    private static final String COMMON_FRIENDS_SQL = "SELECT users.* FROM users "
+            + "WHERE user_id IN (SELECT f1.friend_id FROM friends f1 "
+            + "JOIN friends f2 ON f1.friend_id = f2.friend_id "
+            + "WHERE f1.user_id = ? AND f2.user_id = ?)";
+
+    // Память на запрос сравнивать с -prof gc (gc.alloc.rate.norm) против getAllUsersRowSet
+    @Benchmark
+    public List<User> getAllUsers(StorageState state) {
+        return state.userStorage.getAllUsers();
+    }
+
+    // Прежнее чтение: весь результат копируется в SqlRowSet, а затем ещё раз в список пользователей
+    @Benchmark
+    public List<User> getAllUsersRowSet(StorageState state) {
+        SqlRowSet srs = state.jdbcTemplate.queryForRowSet("SELECT * FROM users");
+        List<User> users = new ArrayList<>();
+        while (srs.next()) {
+            users.add(User.builder()
+                    .id(srs.getInt("user_id"))
+                    .name(srs.getString("user_name"))
+                    .login(srs.getString("login"))
+                    .email(srs.getString("email"))
+                    .birthday(srs.getTimestamp("birthday").toLocalDateTime().toLocalDate())
+                    .build());
+        }
+        return users;
+    }
+
+    @Benchmark
+    public List<User> getFriends(StorageState state) {
+        return state.userStorage.getFriends(state.randomId());
+    }
+
+    @Benchmark
+    public List<User> getCommonFriends(StorageState state) {
+        return state.userStorage.getCommonFriends(state.randomId(), state.randomId());
+    }
+
+    @Benchmark
+    public List<User> getCommonFriendsInMemory(StorageState state) {
+        return state.memoryUserStorage.getCommonFriends(state.randomId(), state.randomId());
+    }
+
+    @Benchmark
+    public List<User> getFriendSuggestions(StorageState state) {
+        return state.userStorage.getFriendSuggestions(state.randomId(), 10);
+    }
+
+    // Пользователь с 5000 друзей: второй шаг обхода идёт параллельно по диапазонам id
+    @Benchmark
+    public int[] getFriendSuggestionsHub(HubGraph graph) {
+        return graph.friendsIndex.getSuggestions(0, 10);
+    }
+
+    @Benchmark
+    public List<Integer> getCommonFriendsSql(StorageState state) {
+        return state.jdbcTemplate.query(COMMON_FRIENDS_SQL, (rs, rowNum) -> rs.getInt("user_id"),
+                state.randomId(), state.randomId());
+    }
+
+    @Benchmark
+    public User createUser(StorageState state) {
+        return state.userStorage.createUser(newUser());
+    }
+
+    // Как createUser был устроен раньше: новый SimpleJdbcInsert и чтение метаданных таблицы на каждый вызов
+    @Benchmark
+    public Number createUserUncompiled(StorageState state) {
+        User user = newUser();
+        return new SimpleJdbcInsert(state.jdbcTemplate)
+                .withTableName("users")
+                .usingColumns("user_name", "login", "email", "birthday")
+                .usingGeneratedKeyColumns("user_id")
+                .executeAndReturnKey(Map.of(
+                        "user_name", user.getName(),
+                        "login", user.getLogin(),
+                        "email", user.getEmail(),
+                        "birthday", java.sql.Date.valueOf(user.getBirthday())));
+    }
+
+    private static User newUser() {
+        return User.builder()
+                .name("Bench")
+                .login("bench")
+                .email("bench@mail.ru")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+
+    // Граф без БД: пользователь 0 дружит с 1..HUB_FRIENDS, у каждого из них degree друзей среди users
+    @State(Scope.Benchmark)
+    public static class HubGraph {
+
+        private static final int HUB_FRIENDS = 5000;
+
+        @Param({"100", "1000"})
+        public int degree;
+
+        @Param({"1000000"})
+        public int users;
+
+        public FriendsIndex friendsIndex;
+
+        @Setup
+        public void setUp() {
+            int edges = HUB_FRIENDS + HUB_FRIENDS * degree;
+            int[] userIds = new int[edges];
+            int[] friendIds = new int[edges];
+            Random random = new Random(42);
+            int size = 0;
+            for (int friend = 1; friend <= HUB_FRIENDS; friend++) {
+                userIds[size] = 0;
+                friendIds[size++] = friend;
+                for (int i = 0; i < degree; i++) {
+                    userIds[size] = friend;
+                    friendIds[size++] = 1 + random.nextInt(users);
+                }
+            }
+            friendsIndex = new FriendsIndex();
+            friendsIndex.rebuild(userIds, friendIds);
+        }
+    }
+}
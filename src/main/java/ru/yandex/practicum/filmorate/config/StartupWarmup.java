@@ -0,0 +1,185 @@
+package ru.yandex.practicum.filmorate.config;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.GenreService;
+import ru.yandex.practicum.filmorate.service.RatingMpaService;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Прогрев после старта: справочники, пул соединений, популярные и горячие фильмы,
+ * затем синтетические GET-запросы к контроллерам через настоящий HTTP-стек, чтобы JIT
+ * успел скомпилировать горячие пути. Раннеры выполняются до ApplicationReadyEvent,
+ * поэтому /actuator/health/readiness отвечает OUT_OF_SERVICE, пока прогрев не закончится.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class StartupWarmup implements ApplicationRunner {
+
+    private final ApplicationEventPublisher publisher;
+    private final Environment environment;
+    private final ObjectProvider<DataSource> dataSources;
+    private final FilmService filmService;
+    private final UserService userService;
+    private final GenreService genreService;
+    private final RatingMpaService ratingMpaService;
+    private final int hotFilms;
+    private final int requests;
+
+    private final Map<String, Long> phases = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    public StartupWarmup(ApplicationEventPublisher publisher,
+                         Environment environment,
+                         ObjectProvider<DataSource> dataSources,
+                         FilmService filmService,
+                         UserService userService,
+                         GenreService genreService,
+                         RatingMpaService ratingMpaService,
+                         @Value("${filmorate.warmup.hot-films:100}") int hotFilms,
+                         @Value("${filmorate.warmup.requests:500}") int requests) {
+        this.publisher = publisher;
+        this.environment = environment;
+        this.dataSources = dataSources;
+        this.filmService = filmService;
+        this.userService = userService;
+        this.genreService = genreService;
+        this.ratingMpaService = ratingMpaService;
+        this.hotFilms = hotFilms;
+        this.requests = requests;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        AvailabilityChangeEvent.publish(publisher, this, ReadinessState.REFUSING_TRAFFIC);
+        long started = System.nanoTime();
+
+        phase("справочники", () -> {
+            genreService.getAllGenres();
+            ratingMpaService.getRatingsMpa();
+        });
+        phase("пул соединений", this::primeConnectionPool);
+        List<Integer> hotIds = new ArrayList<>();
+        phase("популярные фильмы", () -> filmService.getTopFilms(hotFilms).forEach(film -> {
+            // Повторное чтение по id кладёт фильм в кэш
+            filmService.getFilmById(film.getId());
+            hotIds.add(film.getId());
+        }));
+        Integer port = environment.getProperty("local.server.port", Integer.class);
+        if (port != null && requests > 0) {
+            phase("HTTP", () -> exerciseControllers(port, hotIds));
+        }
+
+        StringJoiner report = new StringJoiner(", ");
+        phases.forEach((name, millis) -> report.add(name + " " + millis + " мс"));
+        log.info("Прогрев завершён за {} мс: {}; до готовности с запуска JVM {} мс",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), report,
+                ManagementFactory.getRuntimeMXBean().getUptime());
+        // ACCEPTING_TRAFFIC Spring Boot публикует сам, когда все раннеры отработают
+    }
+
+    public Map<String, Long> getPhases() {
+        synchronized (phases) {
+            return new LinkedHashMap<>(phases);
+        }
+    }
+
+    private void phase(String name, Runnable action) {
+        long started = System.nanoTime();
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            // Прогрев не должен мешать старту: без него приложение просто будет медленнее первые минуты
+            log.warn("Этап прогрева «{}» завершился ошибкой", name, e);
+        }
+        phases.put(name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    // Hikari создаёт соединения до minimumIdle в фоне; занимаем весь пул сразу, чтобы они открылись до трафика
+    private void primeConnectionPool() {
+        DataSource dataSource = dataSources.getIfAvailable();
+        if (dataSource == null) {
+            return;
+        }
+        List<Connection> connections = new ArrayList<>();
+        try {
+            int size = dataSource.isWrapperFor(HikariConfigMXBean.class)
+                    ? dataSource.unwrap(HikariConfigMXBean.class).getMaximumPoolSize()
+                    : 1;
+            for (int i = 0; i < size; i++) {
+                Connection connection = dataSource.getConnection();
+                connections.add(connection);
+                connection.isValid(1);
+            }
+        } catch (SQLException e) {
+            log.warn("Не удалось прогреть пул соединений", e);
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    log.warn("Не удалось вернуть соединение в пул", e);
+                }
+            }
+        }
+    }
+
+    // Только чтение: прогрев не должен менять данные
+    private void exerciseControllers(int port, List<Integer> hotIds) {
+        List<String> paths = new ArrayList<>(List.of("/films?limit=50", "/films/popular", "/genres", "/mpa",
+                "/users?limit=50", "/films/0"));
+        hotIds.stream().limit(10).forEach(filmId -> paths.add("/films/" + filmId));
+        userService.getUsersPage(0, 1).getItems().stream()
+                .map(User::getId)
+                .forEach(userId -> paths.add("/users/" + userId + "/friends"));
+
+        HttpClient client = HttpClient.newHttpClient();
+        int failed = 0;
+        for (int i = 0; i < requests; i++) {
+            HttpRequest request = HttpRequest.newBuilder(
+                    URI.create("http://localhost:" + port + paths.get(i % paths.size()))).GET().build();
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() >= 500) {
+                    failed++;
+                }
+            } catch (Exception e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                failed++;
+            }
+        }
+        if (failed > 0) {
+            log.warn("Прогрев HTTP: {} из {} запросов завершились ошибкой", failed, requests);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package ru.yandex.practicum.filmorate.config;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Режим виртуальных потоков включается стандартным spring.threads.virtual.enabled:
+ * Tomcat и асинхронные задачи MVC начинают работать на виртуальных потоках.
+ * Вместе с ним перед пулом соединений ставится ConnectionLimitingDataSource,
+ * чтобы число одновременных обращений к БД не превышало размер пула.
+ */
+@Slf4j
+@Configuration
+public class VirtualThreadsConfig {
+
+    // Размер пула Hikari по умолчанию
+    private static final int DEFAULT_MAX_CONCURRENCY = 10;
+
+    @Bean
+    static BeanPostProcessor connectionLimitingDataSourcePostProcessor(Environment environment) {
+        boolean virtualThreads = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        boolean enabled = environment.getProperty("filmorate.datasource.limiter.enabled", Boolean.class,
+                virtualThreads);
+        int maxConcurrency = environment.getProperty("filmorate.datasource.limiter.max-concurrency",
+                Integer.class, 0);
+        Duration timeout = environment.getProperty("filmorate.datasource.limiter.timeout", Duration.class,
+                Duration.ofSeconds(30));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!enabled || !(bean instanceof DataSource dataSource)
+                        || bean instanceof ConnectionLimitingDataSource) {
+                    return bean;
+                }
+                int permits = maxConcurrency > 0 ? maxConcurrency : poolSize(dataSource);
+                log.info("Одновременных обращений к БД не больше {}", permits);
+                return new ConnectionLimitingDataSource(dataSource, permits, timeout);
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder connectionLimiterMetrics(ObjectProvider<DataSource> dataSources) {
+        return registry -> dataSources.forEach(dataSource -> {
+            ConnectionLimitingDataSource limiter = findLimiter(dataSource);
+            if (limiter != null) {
+                Gauge.builder("filmorate.datasource.limiter.waiting", limiter,
+                                ConnectionLimitingDataSource::getQueueLength)
+                        .description("Потоки, ожидающие разрешения на соединение")
+                        .register(registry);
+                Gauge.builder("filmorate.datasource.limiter.available", limiter,
+                                ConnectionLimitingDataSource::getAvailablePermits)
+                        .register(registry);
+            }
+        });
+    }
+
+    // Ограничитель может оказаться под другими обёртками, например под счётчиком запросов
+    private static ConnectionLimitingDataSource findLimiter(DataSource dataSource) {
+        while (dataSource instanceof DelegatingDataSource delegating) {
+            if (delegating instanceof ConnectionLimitingDataSource limiter) {
+                return limiter;
+            }
+            dataSource = delegating.getTargetDataSource();
+        }
+        return null;
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        try {
+            // До первого соединения Hikari отдаёт -1, если размер пула не задан явно; тогда действует его умолчание
+            if (dataSource.isWrapperFor(HikariConfigMXBean.class)) {
+                int size = dataSource.unwrap(HikariConfigMXBean.class).getMaximumPoolSize();
+                if (size > 0) {
+                    return size;
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("Не удалось определить размер пула соединений", e);
+        }
+        return DEFAULT_MAX_CONCURRENCY;
+    }
+}
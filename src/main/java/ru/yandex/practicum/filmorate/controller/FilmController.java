@@ -1,14 +1,25 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.model.CursorPage;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFacets;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.model.FilmImportResult;
 import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.service.LikeService;
+import ru.yandex.practicum.filmorate.service.RecommendationService;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Collection;
 import java.util.List;
 
@@ -18,8 +29,13 @@ import java.util.List;
 @RequiredArgsConstructor
 public class FilmController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int EXPORT_FLUSH_SIZE = 500;
+
     private final FilmService filmService;
     private final LikeService likeService;
+    private final RecommendationService recommendationService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public Film createFilm(@Valid @RequestBody Film film) {
@@ -29,14 +45,67 @@ public class FilmController {
         return createdFilm;
     }
 
+    @PostMapping("/bulk")
+    public FilmImportResult importFilms(@RequestBody List<Film> films) {
+        log.info("Запрос на пакетное создание фильмов: {}", films.size());
+        return filmService.importFilms(films);
+    }
+
     @PutMapping
     public Film updateFilm(@Valid @RequestBody Film film) {
         return filmService.updateFilm(film);
     }
 
+    // Параметры genre, mpa, yearFrom и yearTo фильтруют выдачу, см. FilmFilter
     @GetMapping
-    public List<Film> getAllFilms() {
-        return filmService.getAllFilms();
+    public List<Film> getAllFilms(FilmFilter filter) {
+        return filmService.getAllFilms(filter);
+    }
+
+    @GetMapping(params = "limit")
+    public CursorPage<Film> getFilmsPage(@RequestParam(defaultValue = "0") int after, @RequestParam int limit,
+                                         FilmFilter filter) {
+        return filmService.getFilmsPage(after, limit, filter);
+    }
+
+    @GetMapping("/facets")
+    public FilmFacets getFacets(FilmFilter filter) {
+        return filmService.getFacets(filter);
+    }
+
+    @GetMapping(value = "/export", produces = NDJSON)
+    public StreamingResponseBody exportFilms() {
+        log.info("Запрос на выгрузку каталога фильмов");
+        return outputStream -> {
+            // По умолчанию SequenceWriter сбрасывает буфер после каждого значения, сброс делаем сами
+            try (SequenceWriter writer = objectMapper.writerFor(Film.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .withRootValueSeparator("\n")
+                    .writeValues(outputStream)) {
+                int[] written = new int[1];
+                filmService.exportFilms(film -> {
+                    try {
+                        writer.write(film);
+                        // Первый фильм отдаём сразу, дальше сбрасываем буфер пачками
+                        if (written[0]++ % EXPORT_FLUSH_SIZE == 0) {
+                            writer.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                // Хвост буфера генератора должен уйти раньше перевода строки, записанного мимо него
+                writer.flush();
+                outputStream.write('\n');
+            }
+        };
+    }
+
+    @GetMapping("/search")
+    public List<Film> searchFilms(@RequestParam String q,
+                                  @RequestParam(defaultValue = "0") int offset,
+                                  @RequestParam(defaultValue = "20") int limit) {
+        return filmService.searchFilms(q, offset, limit);
     }
 
     @GetMapping("/{filmId}")
@@ -46,8 +115,15 @@ public class FilmController {
 
     @GetMapping("/popular")
     @ResponseStatus(HttpStatus.OK)
-    public Collection<Film> getMostPopularFilms(@RequestParam(defaultValue = "10") int count) {
-        return filmService.getTopFilms(count);
+    public Collection<Film> getMostPopularFilms(@RequestParam(defaultValue = "10") int count,
+                                                @RequestParam(required = false) Integer genreId,
+                                                @RequestParam(required = false) Integer year) {
+        return filmService.getTopFilms(count, genreId, year);
+    }
+
+    @GetMapping("/{filmId}/similar")
+    public List<Film> getSimilarFilms(@PathVariable int filmId, @RequestParam(defaultValue = "10") int count) {
+        return recommendationService.getSimilarFilms(filmId, count);
     }
 
     @PutMapping("/{id}/like/{userId}")
@@ -0,0 +1,85 @@
+package ru.yandex.practicum.filmorate.durability;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.sql.init.AbstractScriptDatabaseInitializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.storage.like.LikeWriteBehindQueue;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Сохранение in-memory базы между перезапусками: снимки и журнал изменений в filmorate.durability.dir.
+ * Восстановление встроено сразу после schema.sql и data.sql: от инициализатора схемы зависит
+ * JdbcTemplate, поэтому хранилища строят свои индексы уже по восстановленным данным.
+ */
+@Slf4j
+@Configuration
+@Profile("!memory")
+@ConditionalOnProperty(name = "filmorate.durability.enabled", havingValue = "true")
+public class DurabilityConfig {
+
+    @Bean
+    static BeanPostProcessor walRecoveryPostProcessor(Environment environment,
+                                                      ObjectProvider<DataSource> dataSources) {
+        Path dir = Path.of(environment.getProperty("filmorate.durability.dir", "data"));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof AbstractScriptDatabaseInitializer) {
+                    try {
+                        WalReplayer.recover(dataSources.getObject(), dir);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Не удалось восстановить базу из " + dir, e);
+                    }
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    WriteAheadLog writeAheadLog(JdbcTemplate jdbcTemplate,
+                                ObjectProvider<LikeWriteBehindQueue> likeQueue,
+                                @Value("${filmorate.durability.dir:data}") Path dir,
+                                @Value("${filmorate.durability.fsync:true}") boolean fsync,
+                                @Value("${filmorate.durability.snapshot-interval:10m}") Duration snapshotInterval,
+                                @Value("${filmorate.durability.snapshot-on-shutdown:true}") boolean snapshotOnShutdown) {
+        return new WriteAheadLog(jdbcTemplate, dir, fsync, snapshotInterval, snapshotOnShutdown,
+                () -> likeQueue.ifAvailable(LikeWriteBehindQueue::flush));
+    }
+
+    @Bean
+    WriteAheadLogAspect writeAheadLogAspect(WriteAheadLog writeAheadLog) {
+        return new WriteAheadLogAspect(writeAheadLog);
+    }
+
+    @Bean
+    MeterBinder writeAheadLogMetrics(WriteAheadLog writeAheadLog) {
+        return registry -> {
+            FunctionCounter.builder("filmorate.durability.wal.entries", writeAheadLog, WriteAheadLog::getAppended)
+                    .description("Записи, добавленные в журнал изменений")
+                    .register(registry);
+            FunctionCounter.builder("filmorate.durability.snapshots", writeAheadLog, WriteAheadLog::getSnapshots)
+                    .register(registry);
+            Gauge.builder("filmorate.durability.snapshot.last.duration", writeAheadLog,
+                            WriteAheadLog::getLastSnapshotMillis)
+                    .baseUnit("milliseconds")
+                    .register(registry);
+        };
+    }
+}
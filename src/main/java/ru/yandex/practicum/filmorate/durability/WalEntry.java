@@ -0,0 +1,35 @@
+package ru.yandex.practicum.filmorate.durability;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+/**
+ * Запись журнала. Каждая запись самодостаточна и идемпотентна: фильм и пользователь
+ * пишутся целиком вместе с id, поэтому повторное применение записи, уже попавшей
+ * в снимок, ничего не меняет.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record WalEntry(Type type, Integer id, Integer otherId, Film film, User user) {
+
+    public enum Type {
+        FILM,
+        USER,
+        LIKE_ADD,
+        LIKE_REMOVE,
+        FRIEND_ADD,
+        FRIEND_REMOVE
+    }
+
+    public static WalEntry film(Film film) {
+        return new WalEntry(Type.FILM, null, null, film, null);
+    }
+
+    public static WalEntry user(User user) {
+        return new WalEntry(Type.USER, null, null, null, user);
+    }
+
+    public static WalEntry pair(Type type, int id, int otherId) {
+        return new WalEntry(type, id, otherId, null, null);
+    }
+}
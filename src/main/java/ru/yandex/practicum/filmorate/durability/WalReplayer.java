@@ -0,0 +1,171 @@
+package ru.yandex.practicum.filmorate.durability;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.User;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Восстановление in-memory базы при старте: последний снимок через RUNSCRIPT,
+ * затем записи всех сегментов журнала начиная с номера снимка. Лайки и дружба
+ * применяются пачками, фильмы и пользователи — через MERGE по id.
+ */
+@Slf4j
+public final class WalReplayer {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper mapper;
+    private final List<Object[]> pending = new ArrayList<>(BATCH_SIZE);
+    private WalEntry.Type pendingType;
+
+    private WalReplayer(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.mapper = WriteAheadLog.createMapper();
+    }
+
+    public record Recovery(long snapshot, long entries, Duration elapsed) {
+    }
+
+    public static Recovery recover(DataSource dataSource, Path dir) throws IOException {
+        return new WalReplayer(dataSource).recover(dir);
+    }
+
+    private Recovery recover(Path dir) throws IOException {
+        long started = System.nanoTime();
+        List<Long> snapshots = WriteAheadLog.sequences(dir, WriteAheadLog.SNAPSHOT_PREFIX,
+                WriteAheadLog.SNAPSHOT_SUFFIX);
+        long snapshot = snapshots.isEmpty() ? 0 : snapshots.get(snapshots.size() - 1);
+        if (snapshot > 0) {
+            jdbcTemplate.execute("RUNSCRIPT FROM " + WriteAheadLog.quote(WriteAheadLog.snapshotPath(dir, snapshot))
+                    + " COMPRESSION GZIP");
+        }
+
+        List<Long> segments = WriteAheadLog.sequences(dir, WriteAheadLog.SEGMENT_PREFIX,
+                WriteAheadLog.SEGMENT_SUFFIX).stream()
+                .filter(seq -> seq >= snapshot)
+                .toList();
+        long entries = 0;
+        for (long segment : segments) {
+            entries += replay(WriteAheadLog.segmentPath(dir, segment));
+        }
+        flush();
+        if (snapshot > 0 || entries > 0) {
+            restartIdentity("films", "film_id");
+            restartIdentity("users", "user_id");
+        }
+
+        Recovery recovery = new Recovery(snapshot, entries, Duration.ofNanos(System.nanoTime() - started));
+        log.info("База восстановлена за {} мс: снимок {}, записей журнала {}",
+                recovery.elapsed().toMillis(), snapshot, entries);
+        return recovery;
+    }
+
+    private long replay(Path segment) throws IOException {
+        long entries = 0;
+        try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            while (line != null) {
+                String next = reader.readLine();
+                if (!line.isBlank()) {
+                    WalEntry entry;
+                    try {
+                        entry = mapper.readValue(line, WalEntry.class);
+                    } catch (JsonProcessingException e) {
+                        if (next != null) {
+                            throw new IllegalStateException("Повреждённая запись в " + segment.getFileName(), e);
+                        }
+                        // Оборванная последняя строка — запись, которую не успели дописать при падении
+                        log.warn("Пропущена недописанная запись в конце {}", segment.getFileName());
+                        break;
+                    }
+                    apply(entry);
+                    entries++;
+                }
+                line = next;
+            }
+        }
+        return entries;
+    }
+
+    private void apply(WalEntry entry) {
+        switch (entry.type()) {
+            case FILM -> {
+                flush();
+                mergeFilm(entry.film());
+            }
+            case USER -> {
+                flush();
+                mergeUser(entry.user());
+            }
+            default -> {
+                if (pendingType != entry.type() || pending.size() == BATCH_SIZE) {
+                    flush();
+                }
+                pendingType = entry.type();
+                pending.add(new Object[]{entry.id(), entry.otherId()});
+            }
+        }
+    }
+
+    private void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        String sql = switch (pendingType) {
+            case LIKE_ADD -> "MERGE INTO likes (film_id, user_id) KEY (film_id, user_id) VALUES (?, ?)";
+            case LIKE_REMOVE -> "DELETE FROM likes WHERE film_id = ? AND user_id = ?";
+            case FRIEND_ADD -> "MERGE INTO friends (user_id, friend_id, status) KEY (user_id, friend_id) "
+                    + "VALUES (?, ?, TRUE)";
+            case FRIEND_REMOVE -> "DELETE FROM friends WHERE user_id = ? AND friend_id = ?";
+            default -> throw new IllegalStateException("Неожиданный тип записи " + pendingType);
+        };
+        jdbcTemplate.batchUpdate(sql, pending);
+        pending.clear();
+    }
+
+    private void mergeFilm(Film film) {
+        jdbcTemplate.update("MERGE INTO films (film_id, film_name, description, duration, release_date, rating_id) "
+                        + "KEY (film_id) VALUES (?, ?, ?, ?, ?, ?)",
+                film.getId(), film.getName(), film.getDescription(), film.getDuration(),
+                Date.valueOf(film.getReleaseDate()), film.getMpa().getId());
+        jdbcTemplate.update("DELETE FROM film_genres WHERE film_id = ?", film.getId());
+        List<Object[]> genres = film.getGenres().stream()
+                .map(Genre::getId)
+                .distinct()
+                .map(genreId -> new Object[]{film.getId(), genreId})
+                .toList();
+        if (!genres.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)", genres);
+        }
+    }
+
+    private void mergeUser(User user) {
+        jdbcTemplate.update("MERGE INTO users (user_id, user_name, login, email, birthday) KEY (user_id) "
+                        + "VALUES (?, ?, ?, ?, ?)",
+                user.getId(), user.getName(), user.getLogin(), user.getEmail(),
+                user.getBirthday() == null ? null : Date.valueOf(user.getBirthday()));
+    }
+
+    // MERGE с явным id не сдвигает счётчик identity, иначе следующий INSERT получил бы занятый id
+    private void restartIdentity(String table, String column) {
+        Integer max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(" + column + "), 0) FROM " + table,
+                Integer.class);
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN " + column + " RESTART WITH " + (max + 1));
+    }
+}
@@ -0,0 +1,239 @@
+package ru.yandex.practicum.filmorate.durability;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Журнал изменений хранилищ поверх in-memory H2.
+ * Записи дописываются в текущий сегмент wal-N.log построчно в JSON. Снимок переключает журнал
+ * на сегмент N+1 и сохраняет всю базу командой SCRIPT в snapshot-(N+1).sql.gz; после этого
+ * сегменты до N и старые снимки больше не нужны. Запись в журнал идёт после коммита изменения
+ * в БД, поэтому всё, что попало в закрытые сегменты, уже есть в снимке.
+ */
+@Slf4j
+public class WriteAheadLog {
+
+    static final String SEGMENT_PREFIX = "wal-";
+    static final String SEGMENT_SUFFIX = ".log";
+    static final String SNAPSHOT_PREFIX = "snapshot-";
+    static final String SNAPSHOT_SUFFIX = ".sql.gz";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper mapper = createMapper();
+    private final Path dir;
+    private final boolean fsync;
+    private final Duration snapshotInterval;
+    private final boolean snapshotOnShutdown;
+    private final Runnable beforeSnapshot;
+
+    // Не synchronized: запись ходит на диск, а монитор закрепил бы виртуальный поток за платформенным
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private FileChannel segment;
+    private long segmentSeq;
+    private ScheduledExecutorService scheduler;
+
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong snapshots = new AtomicLong();
+    private final AtomicLong lastSnapshotNanos = new AtomicLong();
+
+    public WriteAheadLog(JdbcTemplate jdbcTemplate, Path dir, boolean fsync,
+                         Duration snapshotInterval, boolean snapshotOnShutdown, Runnable beforeSnapshot) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dir = dir;
+        this.fsync = fsync;
+        this.snapshotInterval = snapshotInterval;
+        this.snapshotOnShutdown = snapshotOnShutdown;
+        this.beforeSnapshot = beforeSnapshot;
+    }
+
+    // Свой экземпляр: журнал нужен при восстановлении, раньше, чем контекст соберёт общий ObjectMapper.
+    // Модули те же — даты и имена параметров конструктора User
+    static ObjectMapper createMapper() {
+        return JsonMapper.builder().findAndAddModules().build();
+    }
+
+    static Path segmentPath(Path dir, long seq) {
+        return dir.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, seq, SEGMENT_SUFFIX));
+    }
+
+    static Path snapshotPath(Path dir, long seq) {
+        return dir.resolve(String.format("%s%019d%s", SNAPSHOT_PREFIX, seq, SNAPSHOT_SUFFIX));
+    }
+
+    // Номера файлов с данным префиксом и суффиксом по возрастанию
+    static List<Long> sequences(Path dir, String prefix, String suffix) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                    .map(name -> Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        Files.createDirectories(dir);
+        // Всегда начинаем новый сегмент: хвост старого мог оборваться при падении
+        long last = Math.max(
+                sequences(dir, SEGMENT_PREFIX, SEGMENT_SUFFIX).stream().mapToLong(Long::longValue).max().orElse(0),
+                sequences(dir, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX).stream().mapToLong(Long::longValue).max().orElse(0));
+        openSegment(last + 1);
+        if (!snapshotInterval.isZero()) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "wal-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalMillis = snapshotInterval.toMillis();
+            scheduler.scheduleWithFixedDelay(this::snapshotQuietly, intervalMillis, intervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+        log.info("Журнал изменений включён: каталог {}, сегмент {}, fsync {}, снимок каждые {}",
+                dir.toAbsolutePath(), segmentSeq, fsync, snapshotInterval);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        if (snapshotOnShutdown) {
+            snapshot();
+        }
+        appendLock.lock();
+        try {
+            segment.close();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public void append(WalEntry entry) {
+        appendAll(List.of(entry));
+    }
+
+    // Пачка уходит одной записью в файл и одним fsync
+    public void appendAll(List<WalEntry> entries) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(128 * entries.size());
+        try {
+            for (WalEntry entry : entries) {
+                mapper.writeValue(buffer, entry);
+                buffer.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+        appendLock.lock();
+        try {
+            while (bytes.hasRemaining()) {
+                segment.write(bytes);
+            }
+            if (fsync) {
+                segment.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать в журнал изменений", e);
+        } finally {
+            appendLock.unlock();
+        }
+        appended.addAndGet(entries.size());
+    }
+
+    public void snapshot() throws IOException {
+        snapshotLock.lock();
+        try {
+            long started = System.nanoTime();
+            long covered;
+            appendLock.lock();
+            try {
+                segment.close();
+                openSegment(segmentSeq + 1);
+                covered = segmentSeq;
+            } finally {
+                appendLock.unlock();
+            }
+            // Изменения из закрытых сегментов должны дойти до базы, например лайки из очереди write-behind
+            beforeSnapshot.run();
+            Path target = snapshotPath(dir, covered);
+            Path temp = dir.resolve(target.getFileName() + ".tmp");
+            jdbcTemplate.execute("SCRIPT DROP TO " + quote(temp) + " COMPRESSION GZIP");
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            deleteBefore(SEGMENT_PREFIX, SEGMENT_SUFFIX, covered);
+            deleteBefore(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX, covered);
+
+            long elapsed = System.nanoTime() - started;
+            snapshots.incrementAndGet();
+            lastSnapshotNanos.set(elapsed);
+            log.info("Снимок {} сохранён за {} мс, {} байт", target.getFileName(),
+                    TimeUnit.NANOSECONDS.toMillis(elapsed), Files.size(target));
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    public long getAppended() {
+        return appended.get();
+    }
+
+    public long getSnapshots() {
+        return snapshots.get();
+    }
+
+    public double getLastSnapshotMillis() {
+        return lastSnapshotNanos.get() / 1_000_000.0;
+    }
+
+    static String quote(Path path) {
+        return "'" + path.toAbsolutePath().toString().replace("'", "''") + "'";
+    }
+
+    private void openSegment(long seq) throws IOException {
+        segment = FileChannel.open(segmentPath(dir, seq),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segmentSeq = seq;
+    }
+
+    private void deleteBefore(String prefix, String suffix, long seq) throws IOException {
+        for (long old : sequences(dir, prefix, suffix)) {
+            if (old < seq) {
+                Files.deleteIfExists(dir.resolve(prefix + String.format("%019d", old) + suffix));
+            }
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (Exception e) {
+            log.error("Не удалось сохранить снимок базы", e);
+        }
+    }
+}
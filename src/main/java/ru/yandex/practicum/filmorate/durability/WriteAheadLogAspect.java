@@ -0,0 +1,85 @@
+package ru.yandex.practicum.filmorate.durability;
+
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.List;
+
+/**
+ * Пишет в журнал изменения, которые хранилища уже успешно применили к базе.
+ * Пойнткаты заданы по интерфейсам хранилищ, поэтому журнал не зависит от реализации.
+ * Внутри транзакции запись откладывается до коммита: снимок не видит незакоммиченных строк
+ * и удалил бы сегмент с их записью, а после отката записи в журнале быть не должно.
+ */
+@Aspect
+public class WriteAheadLogAspect {
+
+    private static final String STORAGE = "ru.yandex.practicum.filmorate.storage";
+
+    private final WriteAheadLog wal;
+
+    public WriteAheadLogAspect(WriteAheadLog wal) {
+        this.wal = wal;
+    }
+
+    @AfterReturning(pointcut = "execution(* " + STORAGE + ".film.FilmStorage.createFilm(..)) "
+            + "|| execution(* " + STORAGE + ".film.FilmStorage.updateFilm(..))", returning = "film")
+    public void logFilm(Film film) {
+        append(WalEntry.film(film));
+    }
+
+    @AfterReturning(pointcut = "execution(* " + STORAGE + ".film.FilmStorage.createFilms(..))", returning = "films")
+    public void logFilms(List<Film> films) {
+        List<WalEntry> entries = films.stream().map(WalEntry::film).toList();
+        afterCommit(() -> wal.appendAll(entries));
+    }
+
+    @AfterReturning(pointcut = "execution(* " + STORAGE + ".user.UserStorage.createUser(..)) "
+            + "|| execution(* " + STORAGE + ".user.UserStorage.updateUser(..))", returning = "user")
+    public void logUser(User user) {
+        append(WalEntry.user(user));
+    }
+
+    @AfterReturning("(execution(* " + STORAGE + ".film.FilmStorage.addLike(..)) "
+            + "|| execution(* " + STORAGE + ".like.LikeStorage.addLike(..))) && args(filmId, userId)")
+    public void logLikeAdded(int filmId, int userId) {
+        append(WalEntry.pair(WalEntry.Type.LIKE_ADD, filmId, userId));
+    }
+
+    @AfterReturning("(execution(* " + STORAGE + ".film.FilmStorage.removeLike(..)) "
+            + "|| execution(* " + STORAGE + ".like.LikeStorage.deleteLike(..))) && args(filmId, userId)")
+    public void logLikeRemoved(int filmId, int userId) {
+        append(WalEntry.pair(WalEntry.Type.LIKE_REMOVE, filmId, userId));
+    }
+
+    @AfterReturning("execution(* " + STORAGE + ".FriendsStorage.addFriend(..)) && args(userId, friendId)")
+    public void logFriendAdded(int userId, int friendId) {
+        append(WalEntry.pair(WalEntry.Type.FRIEND_ADD, userId, friendId));
+    }
+
+    @AfterReturning("execution(* " + STORAGE + ".FriendsStorage.removeFriend(..)) && args(userId, friendId)")
+    public void logFriendRemoved(int userId, int friendId) {
+        append(WalEntry.pair(WalEntry.Type.FRIEND_REMOVE, userId, friendId));
+    }
+
+    private void append(WalEntry entry) {
+        afterCommit(() -> wal.append(entry));
+    }
+
+    private static void afterCommit(Runnable write) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                write.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,43 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Считает JDBC-запросы, выполненные при обработке одного HTTP-запроса.
+ * Метрика размечается шаблоном пути, а не фактическим URI, чтобы не плодить теги по id.
+ */
+@Component
+public class JdbcQueriesPerRequestFilter extends OncePerRequestFilter {
+
+    private final Meter.MeterProvider<DistributionSummary> queries;
+
+    public JdbcQueriesPerRequestFilter(MeterRegistry registry) {
+        this.queries = DistributionSummary.builder("filmorate.http.jdbc.queries")
+                .description("Число JDBC-запросов на один HTTP-запрос")
+                .withRegistry(registry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryCountingDataSource.resetThreadQueries();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            queries.withTags("method", request.getMethod(), "uri", pattern == null ? "UNKNOWN" : pattern.toString())
+                    .record(QueryCountingDataSource.getThreadQueries());
+        }
+    }
+}
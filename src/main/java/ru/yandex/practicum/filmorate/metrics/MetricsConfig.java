@@ -0,0 +1,78 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.yandex.practicum.filmorate.storage.film.FilmCache;
+import ru.yandex.practicum.filmorate.storage.like.LikeWriteBehindQueue;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Метрики приложения: счётчик JDBC-запросов поверх пула соединений,
+ * а также состояние кэша фильмов и очереди отложенной записи лайков.
+ * Время ожидания соединения публикует сам Hikari (hikaricp.connections.acquire).
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof QueryCountingDataSource)) {
+                    return new QueryCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder jdbcQueriesMetrics() {
+        return registry -> FunctionCounter.builder("filmorate.jdbc.queries", QueryCountingDataSource.class,
+                        ignored -> QueryCountingDataSource.getTotalQueries())
+                .description("Всего подготовленных JDBC-запросов")
+                .register(registry);
+    }
+
+    @Bean
+    MeterBinder filmCacheMetrics(FilmCache filmCache) {
+        return registry -> {
+            FunctionCounter.builder("filmorate.cache.films.hits", filmCache, FilmCache::getHits)
+                    .register(registry);
+            FunctionCounter.builder("filmorate.cache.films.misses", filmCache, FilmCache::getMisses)
+                    .register(registry);
+            FunctionCounter.builder("filmorate.cache.films.evictions", filmCache, FilmCache::getEvictions)
+                    .register(registry);
+            Gauge.builder("filmorate.cache.films.size", filmCache, FilmCache::size)
+                    .register(registry);
+        };
+    }
+
+    // Очереди нет, когда хранилища работают в памяти
+    @Bean
+    MeterBinder likeWriteBehindMetrics(ObjectProvider<LikeWriteBehindQueue> queues) {
+        return registry -> queues.ifAvailable(queue -> {
+            Gauge.builder("filmorate.likes.queue.depth", queue, LikeWriteBehindQueue::getDepth)
+                    .register(registry);
+            FunctionTimer.builder("filmorate.likes.queue.flush", queue,
+                            LikeWriteBehindQueue::getFlushes, LikeWriteBehindQueue::getFlushNanos,
+                            TimeUnit.NANOSECONDS)
+                    .register(registry);
+            FunctionCounter.builder("filmorate.likes.queue.operations", queue,
+                            LikeWriteBehindQueue::getFlushedOperations)
+                    .register(registry);
+            FunctionCounter.builder("filmorate.likes.queue.backpressure", queue,
+                            LikeWriteBehindQueue::getBackpressureFlushes)
+                    .register(registry);
+        });
+    }
+}
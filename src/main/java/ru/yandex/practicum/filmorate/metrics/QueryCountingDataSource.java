@@ -0,0 +1,61 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Обёртка над DataSource, считающая подготовленные JDBC-запросы.
+ * Счётчик ведётся отдельно для каждого потока, чтобы его можно было отнести к HTTP-запросу.
+ */
+public class QueryCountingDataSource extends DelegatingDataSource {
+
+    private static final ThreadLocal<int[]> THREAD_QUERIES = ThreadLocal.withInitial(() -> new int[1]);
+    private static final LongAdder TOTAL_QUERIES = new LongAdder();
+
+    public QueryCountingDataSource(DataSource dataSource) {
+        super(dataSource);
+    }
+
+    public static int getThreadQueries() {
+        return THREAD_QUERIES.get()[0];
+    }
+
+    public static void resetThreadQueries() {
+        THREAD_QUERIES.get()[0] = 0;
+    }
+
+    public static long getTotalQueries() {
+        return TOTAL_QUERIES.sum();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return countingProxy(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return countingProxy(super.getConnection(username, password));
+    }
+
+    private static Connection countingProxy(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    if (method.getName().startsWith("prepare") || method.getName().equals("createStatement")) {
+                        THREAD_QUERIES.get()[0]++;
+                        TOTAL_QUERIES.increment();
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
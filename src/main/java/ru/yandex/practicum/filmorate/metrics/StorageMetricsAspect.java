@@ -0,0 +1,68 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Замеряет время каждого публичного метода *DbStorage и InMemory*Storage
+ * и число строк в возвращённых коллекциях.
+ */
+@Aspect
+@Component
+public class StorageMetricsAspect {
+
+    private final Meter.MeterProvider<Timer> calls;
+    private final Meter.MeterProvider<DistributionSummary> rows;
+
+    public StorageMetricsAspect(MeterRegistry registry) {
+        this.calls = Timer.builder("filmorate.storage.calls")
+                .description("Время выполнения методов хранилищ")
+                .withRegistry(registry);
+        this.rows = DistributionSummary.builder("filmorate.storage.rows")
+                .description("Число элементов, возвращённых методами хранилищ")
+                .withRegistry(registry);
+    }
+
+    @Around("execution(public * ru.yandex.practicum.filmorate.storage..*DbStorage.*(..)) "
+            + "|| execution(public * ru.yandex.practicum.filmorate.storage..InMemory*Storage.*(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String storage = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        String method = joinPoint.getSignature().getName();
+        String exception = "none";
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            int size = sizeOf(result);
+            if (size >= 0) {
+                rows.withTags("storage", storage, "method", method).record(size);
+            }
+            return result;
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            calls.withTags("storage", storage, "method", method, "exception", exception)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static int sizeOf(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        return -1;
+    }
+}
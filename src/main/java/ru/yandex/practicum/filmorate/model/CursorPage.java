@@ -0,0 +1,36 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private List<T> items;
+
+    // id последнего элемента страницы, null если страница последняя
+    private Integer nextCursor;
+
+    // rows должен содержать до limit + 1 строк: лишняя строка только сигнализирует о следующей странице
+    public static <T> CursorPage<T> of(List<T> rows, int limit, ToIntFunction<T> idGetter) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new CursorPage<>(items, idGetter.applyAsInt(items.get(limit - 1)));
+    }
+
+    // Общая проверка размера страницы для всех постраничных выдач
+    public static void checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ValidationException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+// Счётчик каждого значения учитывает все условия фильтра, кроме условия на это же поле
+@Data
+@AllArgsConstructor
+public class FilmFacets {
+
+    private int total;
+
+    private Map<Integer, Integer> genres;
+
+    private Map<Integer, Integer> mpa;
+
+    // Ключ — первый год десятилетия
+    private Map<Integer, Integer> decades;
+}
@@ -0,0 +1,23 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+// Значения внутри одного условия объединяются через ИЛИ, сами условия — через И
+@Data
+public class FilmFilter {
+
+    private List<Integer> genre;
+
+    private List<Integer> mpa;
+
+    private Integer yearFrom;
+
+    private Integer yearTo;
+
+    public boolean isEmpty() {
+        return (genre == null || genre.isEmpty()) && (mpa == null || mpa.isEmpty())
+                && yearFrom == null && yearTo == null;
+    }
+}
@@ -0,0 +1,23 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class FilmImportResult {
+
+    private List<Film> created;
+
+    // Записи, не прошедшие проверку; index — позиция в исходном запросе
+    private List<ItemError> errors;
+
+    @Data
+    @AllArgsConstructor
+    public static class ItemError {
+        private int index;
+        private String message;
+    }
+}
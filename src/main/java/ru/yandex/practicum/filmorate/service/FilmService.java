@@ -1,77 +1,100 @@
 package ru.yandex.practicum.filmorate.service;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.CursorPage;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFacets;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.model.FilmImportResult;
 import ru.yandex.practicum.filmorate.model.Genre;
-import ru.yandex.practicum.filmorate.storage.RatingMpaDbStorage;
-import ru.yandex.practicum.filmorate.storage.genre.GenreDbStorage;
-import ru.yandex.practicum.filmorate.storage.like.LikeDbStorage;
+import ru.yandex.practicum.filmorate.storage.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.film.FilmFacetIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmSearchIndex;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class FilmService {
 
+    public static final int MAX_IMPORT_SIZE = 10_000;
+
     private final FilmStorage filmStorage;
-    private final LikeDbStorage likeDbStorage;
-    private final GenreDbStorage genreDbStorage;
-    private final RatingMpaDbStorage ratingMpaDbStorage;
+    private final UserStorage userStorage;
+    private final LikeStorage likeStorage;
+    private final ReferenceDataCache referenceDataCache;
+    private final FilmSearchIndex searchIndex;
+    private final FilmFacetIndex facetIndex;
+    private final Validator validator;
 
     @Autowired
     public FilmService(FilmStorage filmStorage,
-                       GenreDbStorage genreDbStorage,
-                       RatingMpaDbStorage ratingMpaDbStorage,
+                       ReferenceDataCache referenceDataCache,
                        UserStorage userStorage,
-                       LikeDbStorage likeDbStorage) {
+                       LikeStorage likeStorage,
+                       FilmSearchIndex searchIndex,
+                       FilmFacetIndex facetIndex,
+                       Validator validator) {
         this.filmStorage = filmStorage;
-        this.genreDbStorage = genreDbStorage;
-        this.ratingMpaDbStorage = ratingMpaDbStorage;
-        this.likeDbStorage = likeDbStorage;
+        this.userStorage = userStorage;
+        this.referenceDataCache = referenceDataCache;
+        this.likeStorage = likeStorage;
+        this.searchIndex = searchIndex;
+        this.facetIndex = facetIndex;
+        this.validator = validator;
     }
 
     public Film addFilm(Film film) {
         log.debug("Добавление фильма: {}", film);
+        resolveReferences(film);
+        return filmStorage.createFilm(film);
+    }
 
-        if (film.getMpa() == null || !ratingMpaDbStorage.existsById(film.getMpa().getId())) {
-            throw new NotFoundException("MPA rating with id=" + (film.getMpa() != null ? film.getMpa().getId() : "null") + " does not exist");
+    public FilmImportResult importFilms(List<Film> films) {
+        if (films.size() > MAX_IMPORT_SIZE) {
+            throw new ValidationException("За один запрос можно загрузить не больше " + MAX_IMPORT_SIZE + " фильмов");
         }
-
-        // Загружаем MPA из базы
-        film.setMpa(ratingMpaDbStorage.getRatingMpaById(film.getMpa().getId()));
-
-        // Обрабатываем жанры
-        if (film.getGenres() != null && !film.getGenres().isEmpty()) {
-            Set<Genre> sortedGenres = film.getGenres().stream()
-                    .distinct()
-                    .sorted(Comparator.comparingInt(Genre::getId))
-                    .map(genre -> {
-                        if (!genreDbStorage.existsById(genre.getId())) {
-                            throw new NotFoundException("Genre with id=" + genre.getId() + " does not exist");
-                        }
-                        return genreDbStorage.getGenreById(genre.getId()); // подтянуть имя
-                    })
-                    .collect(Collectors.toCollection(LinkedHashSet::new)); // сохраняем порядок
-            film.setGenres(sortedGenres);
+        // Некорректные записи не прерывают загрузку, а возвращаются списком ошибок
+        List<Film> accepted = new ArrayList<>(films.size());
+        List<FilmImportResult.ItemError> errors = new ArrayList<>();
+        for (int i = 0; i < films.size(); i++) {
+            String error = checkImportedFilm(films.get(i));
+            if (error == null) {
+                accepted.add(films.get(i));
+            } else {
+                errors.add(new FilmImportResult.ItemError(i, error));
+            }
         }
-
-        return filmStorage.createFilm(film);
+        List<Film> created = accepted.isEmpty() ? List.of() : filmStorage.createFilms(accepted);
+        log.info("Загружено фильмов: {}, отклонено: {}", created.size(), errors.size());
+        return new FilmImportResult(created, errors);
     }
 
     public Collection<Film> getTopFilms(Integer count) {
         return filmStorage.getMostPopularFilms(count);
     }
 
+    public Collection<Film> getTopFilms(int count, Integer genreId, Integer year) {
+        return filmStorage.getMostPopularFilms(count, genreId, year);
+    }
+
     public Film updateFilm(Film film) {
-        if (filmStorage.getFilmById(film.getId()) == null) {
+        if (!filmStorage.existsById(film.getId())) {
             throw new NotFoundException("Фильм с ID " + film.getId() + " не найден");
         }
+        // Имена жанров и MPA берём из справочника: хранилище не перечитывает фильм после обновления
+        resolveReferences(film);
         return filmStorage.updateFilm(film);
     }
 
@@ -87,15 +110,113 @@ public class FilmService {
         return filmStorage.getAllFilms();
     }
 
+    public CursorPage<Film> getFilmsPage(int afterId, int limit) {
+        CursorPage.checkLimit(limit);
+        return CursorPage.of(filmStorage.getFilmsPage(afterId, limit + 1), limit, Film::getId);
+    }
+
+    public List<Film> getAllFilms(FilmFilter filter) {
+        if (filter.isEmpty()) {
+            return getAllFilms();
+        }
+        checkFilter(filter);
+        return filmStorage.getFilmsByIds(facetIndex.filter(filter, 0, Integer.MAX_VALUE));
+    }
+
+    public CursorPage<Film> getFilmsPage(int afterId, int limit, FilmFilter filter) {
+        if (filter.isEmpty()) {
+            return getFilmsPage(afterId, limit);
+        }
+        CursorPage.checkLimit(limit);
+        checkFilter(filter);
+        return CursorPage.of(filmStorage.getFilmsByIds(facetIndex.filter(filter, afterId, limit + 1)), limit,
+                Film::getId);
+    }
+
+    public FilmFacets getFacets(FilmFilter filter) {
+        checkFilter(filter);
+        return facetIndex.facets(filter);
+    }
+
+    public List<Film> searchFilms(String query, int offset, int limit) {
+        CursorPage.checkLimit(limit);
+        if (offset < 0) {
+            throw new ValidationException("Смещение не может быть отрицательным");
+        }
+        return filmStorage.getFilmsByIds(searchIndex.search(query, offset, limit));
+    }
+
+    public void exportFilms(Consumer<Film> consumer) {
+        filmStorage.exportFilms(consumer);
+    }
+
     public void addLike(int filmId, int userId) {
-        filmStorage.getFilmById(filmId);
-        likeDbStorage.addLike(filmId, userId);
+        checkFilmAndUser(filmId, userId);
+        likeStorage.addLike(filmId, userId);
         log.info("User {} liked film {}", userId, filmId);
     }
 
     public void deleteLike(int filmId, int userId) {
-        filmStorage.getFilmById(filmId);
-        likeDbStorage.deleteLike(filmId, userId);
+        checkFilmAndUser(filmId, userId);
+        likeStorage.deleteLike(filmId, userId);
         log.info("Пользователь {} отменил лайк фильма {}", userId, filmId);
     }
+
+    private void checkFilmAndUser(int filmId, int userId) {
+        if (!filmStorage.existsById(filmId)) {
+            throw new NotFoundException("Фильм с ID " + filmId + " не найден");
+        }
+        if (!userStorage.existsById(userId)) {
+            throw new NotFoundException("Пользователь с ID " + userId + " не найден");
+        }
+    }
+
+    private String checkImportedFilm(Film film) {
+        if (film == null) {
+            return "Пустая запись";
+        }
+        try {
+            Set<ConstraintViolation<Film>> violations = validator.validate(film);
+            if (!violations.isEmpty()) {
+                return violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; "));
+            }
+            resolveReferences(film);
+            return null;
+        } catch (NotFoundException | jakarta.validation.ValidationException e) {
+            return e.getMessage();
+        }
+    }
+
+    private void resolveReferences(Film film) {
+        if (film.getMpa() == null || !referenceDataCache.hasRatingMpa(film.getMpa().getId())) {
+            throw new NotFoundException("MPA rating with id=" + (film.getMpa() != null ? film.getMpa().getId() : "null") + " does not exist");
+        }
+
+        // Берём MPA из справочника
+        film.setMpa(referenceDataCache.getRatingMpa(film.getMpa().getId()));
+
+        // Обрабатываем жанры
+        if (film.getGenres() != null && !film.getGenres().isEmpty()) {
+            Set<Genre> sortedGenres = film.getGenres().stream()
+                    .distinct()
+                    .sorted(Comparator.comparingInt(Genre::getId))
+                    .map(genre -> {
+                        if (!referenceDataCache.hasGenre(genre.getId())) {
+                            throw new NotFoundException("Genre with id=" + genre.getId() + " does not exist");
+                        }
+                        return referenceDataCache.getGenre(genre.getId()); // подтянуть имя
+                    })
+                    .collect(Collectors.toCollection(LinkedHashSet::new)); // сохраняем порядок
+            film.setGenres(sortedGenres);
+        }
+    }
+
+    private void checkFilter(FilmFilter filter) {
+        if (filter.getYearFrom() != null && filter.getYearTo() != null && filter.getYearFrom() > filter.getYearTo()) {
+            throw new ValidationException("Начальный год не может быть больше конечного");
+        }
+    }
 }
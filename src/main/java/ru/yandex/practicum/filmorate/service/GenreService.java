@@ -1,30 +1,25 @@
 package ru.yandex.practicum.filmorate.service;
 
 import org.springframework.stereotype.Service;
-import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Genre;
-import ru.yandex.practicum.filmorate.storage.genre.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.ReferenceDataCache;
 
 import java.util.List;
 
 @Service
 public class GenreService {
 
-    private final GenreDbStorage genreDbStorage;
+    private final ReferenceDataCache referenceDataCache;
 
-    public GenreService(GenreDbStorage genreDbStorage) {
-        this.genreDbStorage = genreDbStorage;
+    public GenreService(ReferenceDataCache referenceDataCache) {
+        this.referenceDataCache = referenceDataCache;
     }
 
     public Genre getGenreById(int id) {
-        Genre genre = genreDbStorage.getGenreById(id);
-        if (genre == null) {
-            throw new NotFoundException("Жанр не найден");
-        }
-        return genre;
+        return referenceDataCache.getGenre(id);
     }
 
     public List<Genre> getAllGenres() {
-        return genreDbStorage.getAllGenres();
+        return referenceDataCache.getGenres();
     }
-}
\ No newline at end of file
+}
@@ -4,11 +4,9 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
-import ru.yandex.practicum.filmorate.model.Film;
-import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
-import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
-import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 @Slf4j
 @Service
@@ -16,37 +14,27 @@ import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
 public class LikeService {
 
     private final LikeStorage likeStorage;
-    private final FilmDbStorage filmStorage;
-    private final UserDbStorage userStorage;
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
 
     public void addLike(int filmId, int userId) {
         log.debug("Пользователь с ID {} ставит лайк фильму с ID {}", userId, filmId);
-
-        Film film = filmStorage.getFilmById(filmId);
-        if (film == null) {
-            throw new NotFoundException("Фильм с ID " + filmId + " не найден");
-        }
-
-        User user = userStorage.getUserById(userId);
-        if (user == null) {
-            throw new NotFoundException("Пользователь с ID " + userId + " не найден");
-        }
+        checkFilmAndUser(filmId, userId);
         likeStorage.addLike(filmId, userId);
     }
 
     public void deleteLike(int filmId, int userId) {
-        log.debug("Пользователь с ID {} ставит лайк фильму с ID {}", userId, filmId);
+        log.debug("Пользователь с ID {} удаляет лайк фильму с ID {}", userId, filmId);
+        checkFilmAndUser(filmId, userId);
+        likeStorage.deleteLike(filmId, userId);
+    }
 
-        Film film = filmStorage.getFilmById(filmId);
-        if (film == null) {
+    private void checkFilmAndUser(int filmId, int userId) {
+        if (!filmStorage.existsById(filmId)) {
             throw new NotFoundException("Фильм с ID " + filmId + " не найден");
         }
-
-        User user = userStorage.getUserById(userId);
-        if (user == null) {
+        if (!userStorage.existsById(userId)) {
             throw new NotFoundException("Пользователь с ID " + userId + " не найден");
         }
-
-        likeStorage.deleteLike(filmId, userId);
     }
-}
\ No newline at end of file
+}
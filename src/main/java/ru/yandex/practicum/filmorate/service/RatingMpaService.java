@@ -1,30 +1,25 @@
 package ru.yandex.practicum.filmorate.service;
 
 import org.springframework.stereotype.Service;
-import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.RatingMpa;
-import ru.yandex.practicum.filmorate.storage.RatingMpaDbStorage;
+import ru.yandex.practicum.filmorate.storage.ReferenceDataCache;
 
 import java.util.List;
 
 @Service
 public class RatingMpaService {
 
-    private final RatingMpaDbStorage ratingMpaDbStorage;
+    private final ReferenceDataCache referenceDataCache;
 
-    public RatingMpaService(RatingMpaDbStorage ratingMpaDbStorage) {
-        this.ratingMpaDbStorage = ratingMpaDbStorage;
+    public RatingMpaService(ReferenceDataCache referenceDataCache) {
+        this.referenceDataCache = referenceDataCache;
     }
 
     public RatingMpa getRatingMpaById(int id) {
-        RatingMpa mpa = ratingMpaDbStorage.getRatingMpaById(id);
-        if (mpa == null) {
-            throw new NotFoundException("Рейтинг не найден");
-        }
-        return mpa;
+        return referenceDataCache.getRatingMpa(id);
     }
 
     public List<RatingMpa> getRatingsMpa() {
-        return ratingMpaDbStorage.getRatingsMpa();
+        return referenceDataCache.getRatingsMpa();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.CoLikeIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RecommendationService {
+
+    public static final int MAX_COUNT = 100;
+
+    private final CoLikeIndex coLikeIndex;
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+
+    public List<Film> getSimilarFilms(int filmId, int count) {
+        checkCount(count);
+        if (!filmStorage.existsById(filmId)) {
+            throw new NotFoundException("Фильм с ID " + filmId + " не найден");
+        }
+        return filmStorage.getFilmsByIds(coLikeIndex.getSimilar(filmId, count));
+    }
+
+    public List<Film> getRecommendations(int userId, int count) {
+        checkCount(count);
+        if (!userStorage.existsById(userId)) {
+            throw new NotFoundException("Пользователь с ID " + userId + " не найден");
+        }
+        return filmStorage.getFilmsByIds(coLikeIndex.getRecommendations(userId, count));
+    }
+
+    private void checkCount(int count) {
+        if (count < 1 || count > MAX_COUNT) {
+            throw new ValidationException("Число рекомендаций должно быть от 1 до " + MAX_COUNT);
+        }
+    }
+}
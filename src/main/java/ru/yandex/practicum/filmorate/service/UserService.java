@@ -3,6 +3,9 @@ package ru.yandex.practicum.filmorate.service;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.CursorPage;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
@@ -12,6 +15,8 @@ import java.util.*;
 @Slf4j
 public class UserService {
 
+    public static final int MAX_SUGGESTIONS = 100;
+
     private final UserStorage userStorage;
 
     @Autowired
@@ -32,6 +37,11 @@ public class UserService {
         return userStorage.getAllUsers();
     }
 
+    public CursorPage<User> getUsersPage(int afterId, int limit) {
+        CursorPage.checkLimit(limit);
+        return CursorPage.of(userStorage.getUsersPage(afterId, limit + 1), limit, User::getId);
+    }
+
     public void addFriend(Integer userId, Integer friendId) {
         checkUser(userId, friendId);
         userStorage.addFriend(userId, friendId);
@@ -59,8 +69,18 @@ public class UserService {
         return result;
     }
 
+    public List<User> getFriendSuggestions(int userId, int count) {
+        if (count < 1 || count > MAX_SUGGESTIONS) {
+            throw new ValidationException("Число рекомендаций должно быть от 1 до " + MAX_SUGGESTIONS);
+        }
+        checkUser(userId, userId);
+        return userStorage.getFriendSuggestions(userId, count);
+    }
+
     private void checkUser(Integer userId, Integer friendId) {
-        userStorage.getUserById(userId);
-        userStorage.getUserById(friendId);
+        List<Integer> missing = userStorage.getMissingIds(List.of(userId, friendId));
+        if (!missing.isEmpty()) {
+            throw new NotFoundException("User with ID=" + missing.get(0) + " not found!");
+        }
     }
 }
\ No newline at end of file
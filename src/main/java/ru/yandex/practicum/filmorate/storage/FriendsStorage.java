@@ -14,4 +14,7 @@ public interface FriendsStorage {
     List<User> getCommonFriends(int friend1, int friend2);
 
     boolean isFriend(int userId, int friendId);
+
+    // Кандидаты в друзья по убыванию числа общих друзей
+    List<User> getFriendSuggestions(int userId, int count);
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.RatingMpa;
+
+import java.util.List;
+
+/**
+ * Справочник рейтингов MPA для профиля memory.
+ * Содержимое совпадает с data.sql: без БД загрузить справочник неоткуда.
+ */
+@Repository
+@Profile("memory")
+public class InMemoryRatingMpaStorage implements RatingMpaStorage {
+
+    private static final List<RatingMpa> RATINGS = List.of(
+            new RatingMpa(1, "G"),
+            new RatingMpa(2, "PG"),
+            new RatingMpa(3, "PG-13"),
+            new RatingMpa(4, "R"),
+            new RatingMpa(5, "NC-17"));
+
+    @Override
+    public RatingMpa getRatingMpaById(int ratingId) {
+        return RATINGS.stream()
+                .filter(rating -> rating.getId() == ratingId)
+                .findFirst()
+                .orElseThrow(() -> new NotFoundException("Рейтинг не найден: id = " + ratingId));
+    }
+
+    @Override
+    public List<RatingMpa> getRatingsMpa() {
+        return RATINGS;
+    }
+}
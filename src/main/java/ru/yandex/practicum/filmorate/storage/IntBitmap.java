@@ -0,0 +1,383 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.Arrays;
+
+/**
+ * Сжатое множество неотрицательных int. Значения делятся на блоки по старшим 16 битам;
+ * разреженный блок хранится отсортированным массивом младших битов, плотный — битовой картой
+ * на 65536 бит. Пересечение и объединение идут поблочно без распаковки в массивы id.
+ * Не потокобезопасно: синхронизация на стороне владельца.
+ */
+public final class IntBitmap {
+
+    // Больше ARRAY_LIMIT значений массив char занимает больше места, чем битовая карта блока
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int BITMAP_WORDS = 1 << 10;
+
+    private int[] keys = new int[4];
+    private Container[] containers = new Container[4];
+    private int size;
+
+    public void add(int value) {
+        int index = index(value >>> 16);
+        if (index < 0) {
+            index = -index - 1;
+            insertContainer(index, value >>> 16, new Container());
+        }
+        containers[index].add((char) value);
+    }
+
+    public void remove(int value) {
+        int index = index(value >>> 16);
+        if (index >= 0 && containers[index].remove((char) value) && containers[index].cardinality == 0) {
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+            containers[--size] = null;
+        }
+    }
+
+    public boolean contains(int value) {
+        int index = index(value >>> 16);
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    // До limit значений больше after по возрастанию
+    public int[] page(int after, int limit) {
+        if (after == Integer.MAX_VALUE) {
+            return SortedInts.EMPTY;
+        }
+        int from = Math.max(0, after + 1);
+        int[] result = new int[Math.min(limit, cardinality())];
+        int filled = 0;
+        int index = index(from >>> 16);
+        index = index < 0 ? -index - 1 : index;
+        for (; index < size && filled < result.length; index++) {
+            int low = keys[index] == from >>> 16 ? from & 0xFFFF : 0;
+            filled = containers[index].collect(keys[index] << 16, low, result, filled);
+        }
+        return filled == result.length ? result : Arrays.copyOf(result, filled);
+    }
+
+    public static IntBitmap and(IntBitmap first, IntBitmap second) {
+        IntBitmap result = new IntBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < first.size && j < second.size) {
+            if (first.keys[i] < second.keys[j]) {
+                i++;
+            } else if (first.keys[i] > second.keys[j]) {
+                j++;
+            } else {
+                Container container = first.containers[i].and(second.containers[j]);
+                if (container.cardinality > 0) {
+                    result.insertContainer(result.size, first.keys[i], container);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    // Мощность пересечения без построения результата — для счётчиков фасетов
+    public static int andCardinality(IntBitmap first, IntBitmap second) {
+        int cardinality = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.size && j < second.size) {
+            if (first.keys[i] < second.keys[j]) {
+                i++;
+            } else if (first.keys[i] > second.keys[j]) {
+                j++;
+            } else {
+                cardinality += first.containers[i++].andCardinality(second.containers[j++]);
+            }
+        }
+        return cardinality;
+    }
+
+    public static IntBitmap or(IntBitmap first, IntBitmap second) {
+        IntBitmap result = new IntBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < first.size || j < second.size) {
+            if (j == second.size || (i < first.size && first.keys[i] < second.keys[j])) {
+                result.insertContainer(result.size, first.keys[i], first.containers[i++].copy());
+            } else if (i == first.size || second.keys[j] < first.keys[i]) {
+                result.insertContainer(result.size, second.keys[j], second.containers[j++].copy());
+            } else {
+                result.insertContainer(result.size, first.keys[i], first.containers[i++].or(second.containers[j++]));
+            }
+        }
+        return result;
+    }
+
+    private int index(int key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insertContainer(int index, int key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    // Блок из 65536 значений: массив младших битов, пока bits == null, иначе битовая карта
+    private static final class Container {
+
+        private char[] values;
+        private long[] bits;
+        private int cardinality;
+
+        Container() {
+            this.values = new char[4];
+        }
+
+        private Container(char[] values, long[] bits, int cardinality) {
+            this.values = values;
+            this.bits = bits;
+            this.cardinality = cardinality;
+        }
+
+        boolean contains(char low) {
+            return bits != null
+                    ? (bits[low >>> 6] & (1L << low)) != 0
+                    : Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+        }
+
+        boolean add(char low) {
+            if (bits != null) {
+                long word = bits[low >>> 6];
+                bits[low >>> 6] = word | (1L << low);
+                if (word == bits[low >>> 6]) {
+                    return false;
+                }
+                cardinality++;
+                return true;
+            }
+            int position = Arrays.binarySearch(values, 0, cardinality, low);
+            if (position >= 0) {
+                return false;
+            }
+            if (cardinality == ARRAY_LIMIT) {
+                toBitmap();
+                return add(low);
+            }
+            position = -position - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, Math.max(4, cardinality * 2)));
+            }
+            System.arraycopy(values, position, values, position + 1, cardinality - position);
+            values[position] = low;
+            cardinality++;
+            return true;
+        }
+
+        boolean remove(char low) {
+            if (bits != null) {
+                long word = bits[low >>> 6];
+                bits[low >>> 6] = word & ~(1L << low);
+                if (word == bits[low >>> 6]) {
+                    return false;
+                }
+                // Обратно в массив с запасом, чтобы не переключаться туда-обратно на границе
+                if (--cardinality <= ARRAY_LIMIT / 2) {
+                    toArray();
+                }
+                return true;
+            }
+            int position = Arrays.binarySearch(values, 0, cardinality, low);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(values, position + 1, values, position, cardinality - position - 1);
+            cardinality--;
+            return true;
+        }
+
+        Container copy() {
+            return new Container(values == null ? null : Arrays.copyOf(values, cardinality),
+                    bits == null ? null : bits.clone(), cardinality);
+        }
+
+        Container and(Container other) {
+            if (bits != null && other.bits != null) {
+                long[] result = new long[BITMAP_WORDS];
+                int count = 0;
+                for (int word = 0; word < BITMAP_WORDS; word++) {
+                    result[word] = bits[word] & other.bits[word];
+                    count += Long.bitCount(result[word]);
+                }
+                return bitmapOrArray(result, count);
+            }
+            if (bits != null) {
+                return other.and(this);
+            }
+            char[] result = new char[Math.min(cardinality, other.cardinality)];
+            int count = 0;
+            if (other.bits != null) {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) {
+                        result[count++] = values[i];
+                    }
+                }
+            } else {
+                int i = 0;
+                int j = 0;
+                while (i < cardinality && j < other.cardinality) {
+                    if (values[i] < other.values[j]) {
+                        i++;
+                    } else if (values[i] > other.values[j]) {
+                        j++;
+                    } else {
+                        result[count++] = values[i++];
+                        j++;
+                    }
+                }
+            }
+            return new Container(result, null, count);
+        }
+
+        int andCardinality(Container other) {
+            if (bits != null && other.bits != null) {
+                int count = 0;
+                for (int word = 0; word < BITMAP_WORDS; word++) {
+                    count += Long.bitCount(bits[word] & other.bits[word]);
+                }
+                return count;
+            }
+            if (bits != null) {
+                return other.andCardinality(this);
+            }
+            int count = 0;
+            if (other.bits != null) {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) {
+                        count++;
+                    }
+                }
+                return count;
+            }
+            int i = 0;
+            int j = 0;
+            while (i < cardinality && j < other.cardinality) {
+                if (values[i] < other.values[j]) {
+                    i++;
+                } else if (values[i] > other.values[j]) {
+                    j++;
+                } else {
+                    count++;
+                    i++;
+                    j++;
+                }
+            }
+            return count;
+        }
+
+        Container or(Container other) {
+            if (bits == null && other.bits == null && cardinality + other.cardinality <= ARRAY_LIMIT) {
+                char[] result = new char[cardinality + other.cardinality];
+                int count = 0;
+                int i = 0;
+                int j = 0;
+                while (i < cardinality || j < other.cardinality) {
+                    if (j == other.cardinality || (i < cardinality && values[i] < other.values[j])) {
+                        result[count++] = values[i++];
+                    } else if (i == cardinality || other.values[j] < values[i]) {
+                        result[count++] = other.values[j++];
+                    } else {
+                        result[count++] = values[i++];
+                        j++;
+                    }
+                }
+                return new Container(result, null, count);
+            }
+            long[] result = new long[BITMAP_WORDS];
+            setAll(result);
+            other.setAll(result);
+            int count = 0;
+            for (long word : result) {
+                count += Long.bitCount(word);
+            }
+            return bitmapOrArray(result, count);
+        }
+
+        // Значения блока начиная с младших битов from дописываются в out, пока он не заполнится
+        int collect(int high, int from, int[] out, int filled) {
+            if (bits == null) {
+                int position = Arrays.binarySearch(values, 0, cardinality, (char) from);
+                for (position = position < 0 ? -position - 1 : position;
+                     position < cardinality && filled < out.length; position++) {
+                    out[filled++] = high | values[position];
+                }
+                return filled;
+            }
+            for (int word = from >>> 6; word < BITMAP_WORDS && filled < out.length; word++) {
+                long remaining = word == from >>> 6 ? bits[word] & (-1L << from) : bits[word];
+                while (remaining != 0 && filled < out.length) {
+                    out[filled++] = high | (word << 6) | Long.numberOfTrailingZeros(remaining);
+                    remaining &= remaining - 1;
+                }
+            }
+            return filled;
+        }
+
+        private void setAll(long[] target) {
+            if (bits != null) {
+                for (int word = 0; word < BITMAP_WORDS; word++) {
+                    target[word] |= bits[word];
+                }
+                return;
+            }
+            for (int i = 0; i < cardinality; i++) {
+                target[values[i] >>> 6] |= 1L << values[i];
+            }
+        }
+
+        private void toBitmap() {
+            long[] bitmap = new long[BITMAP_WORDS];
+            setAll(bitmap);
+            bits = bitmap;
+            values = null;
+        }
+
+        private void toArray() {
+            values = new char[cardinality];
+            int count = 0;
+            for (int word = 0; word < BITMAP_WORDS; word++) {
+                long remaining = bits[word];
+                while (remaining != 0) {
+                    values[count++] = (char) ((word << 6) | Long.numberOfTrailingZeros(remaining));
+                    remaining &= remaining - 1;
+                }
+            }
+            bits = null;
+        }
+
+        private static Container bitmapOrArray(long[] bits, int cardinality) {
+            Container container = new Container(null, bits, cardinality);
+            if (cardinality <= ARRAY_LIMIT) {
+                container.toArray();
+            }
+            return container;
+        }
+    }
+}
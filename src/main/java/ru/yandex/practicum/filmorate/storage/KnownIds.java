@@ -0,0 +1,51 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Множество id существующих записей в виде битовой карты.
+ * Id выдаются последовательно, поэтому карта компактна; отсутствующий бит
+ * не считается окончательным ответом и перепроверяется по БД.
+ */
+public class KnownIds {
+
+    private final BitSet ids = new BitSet();
+
+    public synchronized void add(int id) {
+        if (id >= 0) {
+            ids.set(id);
+        }
+    }
+
+    public synchronized void rebuild(Collection<Integer> existingIds) {
+        ids.clear();
+        existingIds.forEach(this::add);
+    }
+
+    public synchronized boolean contains(int id) {
+        return id >= 0 && ids.get(id);
+    }
+
+    // dbLookup получает id, которых нет в карте, и возвращает те из них, что нашлись в БД
+    public List<Integer> getMissing(Collection<Integer> candidates,
+                                    Function<List<Integer>, Collection<Integer>> dbLookup) {
+        List<Integer> unknown = new ArrayList<>();
+        for (Integer id : candidates) {
+            if (id == null || !contains(id)) {
+                unknown.add(id);
+            }
+        }
+        if (unknown.isEmpty()) {
+            return unknown;
+        }
+        List<Integer> positive = unknown.stream().filter(id -> id != null && id > 0).distinct().toList();
+        Collection<Integer> found = positive.isEmpty() ? List.of() : dbLookup.apply(positive);
+        found.forEach(this::add);
+        unknown.removeIf(id -> id != null && contains(id));
+        return unknown;
+    }
+}
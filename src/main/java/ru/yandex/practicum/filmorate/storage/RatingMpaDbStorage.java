@@ -1,15 +1,17 @@
 package ru.yandex.practicum.filmorate.storage;
 
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.support.rowset.SqlRowSet;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.RatingMpa;
-import java.util.ArrayList;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.List;
 
 @Repository
-public class RatingMpaDbStorage {
+@Profile("!memory")
+public class RatingMpaDbStorage implements RatingMpaStorage {
 
     private final JdbcTemplate jdbcTemplate;
 
@@ -17,23 +19,20 @@ public class RatingMpaDbStorage {
         this.jdbcTemplate = jdbcTemplate;
     }
 
+    @Override
     public RatingMpa getRatingMpaById(int ratingId) {
         String sqlQuery = "SELECT * FROM rating_mpa WHERE rating_id = ?";
-        SqlRowSet srs = jdbcTemplate.queryForRowSet(sqlQuery, ratingId);
-        if (srs.next()) {
-            return new RatingMpa(ratingId, srs.getString("rating_name"));
+        List<RatingMpa> ratings = jdbcTemplate.query(sqlQuery, RatingMpaDbStorage::mapRatingMpa, ratingId);
+        if (ratings.isEmpty()) {
+            throw new NotFoundException("Рейтинг не найден: id = " + ratingId);
         }
-        throw new NotFoundException("Рейтинг не найден: id = " + ratingId);
+        return ratings.get(0);
     }
 
+    @Override
     public List<RatingMpa> getRatingsMpa() {
-        List<RatingMpa> ratingsMpa = new ArrayList<>();
         String sqlQuery = "SELECT * FROM rating_mpa";
-        SqlRowSet srs = jdbcTemplate.queryForRowSet(sqlQuery);
-        while (srs.next()) {
-            ratingsMpa.add(new RatingMpa(srs.getInt("rating_id"), srs.getString("rating_name")));
-        }
-        return ratingsMpa;
+        return jdbcTemplate.query(sqlQuery, RatingMpaDbStorage::mapRatingMpa);
     }
 
     public boolean existsById(int id) {
@@ -41,4 +40,8 @@ public class RatingMpaDbStorage {
                 "SELECT COUNT(*) FROM rating_mpa WHERE rating_id = ?", Integer.class, id);
         return count != null && count > 0;
     }
+
+    private static RatingMpa mapRatingMpa(ResultSet rs, int rowNum) throws SQLException {
+        return new RatingMpa(rs.getInt("rating_id"), rs.getString("rating_name"));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.model.RatingMpa;
+
+import java.util.List;
+
+public interface RatingMpaStorage {
+
+    RatingMpa getRatingMpaById(int ratingId);
+
+    List<RatingMpa> getRatingsMpa();
+}
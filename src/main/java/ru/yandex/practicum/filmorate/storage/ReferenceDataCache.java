@@ -0,0 +1,93 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.RatingMpa;
+import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Справочники жанров и рейтингов MPA, загруженные в память.
+ * Таблицы заполняются data.sql и не меняются во время работы, поэтому массивы
+ * собираются один раз и подменяются целиком только через invalidate().
+ * Наружу отдаются копии: жанры и MPA встраиваются в фильмы, и изменение такого объекта
+ * не должно менять справочник.
+ */
+@Slf4j
+@Component
+public class ReferenceDataCache {
+
+    private final GenreStorage genreStorage;
+    private final RatingMpaStorage ratingMpaStorage;
+
+    // Индекс массива совпадает с id записи
+    private volatile Genre[] genres = new Genre[0];
+    private volatile RatingMpa[] ratings = new RatingMpa[0];
+    private volatile List<Genre> genreList = List.of();
+    private volatile List<RatingMpa> ratingList = List.of();
+
+    public ReferenceDataCache(GenreStorage genreStorage, RatingMpaStorage ratingMpaStorage) {
+        this.genreStorage = genreStorage;
+        this.ratingMpaStorage = ratingMpaStorage;
+    }
+
+    @PostConstruct
+    public synchronized void invalidate() {
+        List<Genre> loadedGenres = genreStorage.getAllGenres().stream()
+                .sorted(Comparator.comparingInt(Genre::getId))
+                .toList();
+        List<RatingMpa> loadedRatings = ratingMpaStorage.getRatingsMpa().stream()
+                .sorted(Comparator.comparingInt(RatingMpa::getId))
+                .toList();
+
+        Genre[] genresById = new Genre[loadedGenres.stream().mapToInt(Genre::getId).max().orElse(0) + 1];
+        loadedGenres.forEach(genre -> genresById[genre.getId()] = genre);
+        RatingMpa[] ratingsById = new RatingMpa[loadedRatings.stream().mapToInt(RatingMpa::getId).max().orElse(0) + 1];
+        loadedRatings.forEach(rating -> ratingsById[rating.getId()] = rating);
+
+        genres = genresById;
+        ratings = ratingsById;
+        genreList = loadedGenres;
+        ratingList = loadedRatings;
+        log.info("Справочники загружены: жанров {}, рейтингов MPA {}", loadedGenres.size(), loadedRatings.size());
+    }
+
+    public boolean hasGenre(int genreId) {
+        Genre[] snapshot = genres;
+        return genreId >= 0 && genreId < snapshot.length && snapshot[genreId] != null;
+    }
+
+    public Genre getGenre(int genreId) {
+        if (!hasGenre(genreId)) {
+            throw new NotFoundException("Жанр не найден: id = " + genreId);
+        }
+        Genre genre = genres[genreId];
+        return new Genre(genre.getId(), genre.getName());
+    }
+
+    public List<Genre> getGenres() {
+        return genreList.stream().map(genre -> new Genre(genre.getId(), genre.getName())).toList();
+    }
+
+    public boolean hasRatingMpa(int ratingId) {
+        RatingMpa[] snapshot = ratings;
+        return ratingId >= 0 && ratingId < snapshot.length && snapshot[ratingId] != null;
+    }
+
+    public RatingMpa getRatingMpa(int ratingId) {
+        if (!hasRatingMpa(ratingId)) {
+            throw new NotFoundException("Рейтинг не найден: id = " + ratingId);
+        }
+        RatingMpa rating = ratings[ratingId];
+        return new RatingMpa(rating.getId(), rating.getName());
+    }
+
+    public List<RatingMpa> getRatingsMpa() {
+        return ratingList.stream().map(rating -> new RatingMpa(rating.getId(), rating.getName())).toList();
+    }
+}
@@ -0,0 +1,89 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.Arrays;
+
+/**
+ * Операции над отсортированными массивами int без повторов.
+ * Массивы не изменяются на месте: при вставке и удалении возвращается новый массив,
+ * а если менять нечего — тот же самый, так что вызывающий может сравнить ссылки.
+ */
+public final class SortedInts {
+
+    public static final int[] EMPTY = new int[0];
+
+    private SortedInts() {
+    }
+
+    public static int[] insert(int[] values, int value) {
+        int position = Arrays.binarySearch(values, value);
+        if (position >= 0) {
+            return values;
+        }
+        int insertAt = -position - 1;
+        int[] updated = new int[values.length + 1];
+        System.arraycopy(values, 0, updated, 0, insertAt);
+        updated[insertAt] = value;
+        System.arraycopy(values, insertAt, updated, insertAt + 1, values.length - insertAt);
+        return updated;
+    }
+
+    public static int[] remove(int[] values, int value) {
+        int position = Arrays.binarySearch(values, value);
+        if (position < 0) {
+            return values;
+        }
+        int[] updated = new int[values.length - 1];
+        System.arraycopy(values, 0, updated, 0, position);
+        System.arraycopy(values, position + 1, updated, position, values.length - position - 1);
+        return updated;
+    }
+
+    public static boolean contains(int[] values, int value) {
+        return Arrays.binarySearch(values, value) >= 0;
+    }
+
+    // Пересечение слиянием за O(n + m)
+    public static int[] intersect(int[] first, int[] second) {
+        int[] common = new int[Math.min(first.length, second.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                common[size++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(common, size);
+    }
+
+    // Группировка пар подсчётом: для каждого ключа отсортированный массив значений без повторов
+    public static int[][] group(int[] keys, int[] values) {
+        int maxKey = Arrays.stream(keys).max().orElse(-1);
+        int[] sizes = new int[maxKey + 1];
+        for (int key : keys) {
+            sizes[key]++;
+        }
+        int[][] groups = new int[maxKey + 1][];
+        int[] filled = new int[maxKey + 1];
+        for (int i = 0; i < keys.length; i++) {
+            int key = keys[i];
+            if (groups[key] == null) {
+                groups[key] = new int[sizes[key]];
+            }
+            groups[key][filled[key]++] = values[i];
+        }
+        for (int key = 0; key < groups.length; key++) {
+            if (groups[key] != null) {
+                Arrays.sort(groups[key]);
+                groups[key] = Arrays.stream(groups[key]).distinct().toArray();
+            }
+        }
+        return groups;
+    }
+}
@@ -0,0 +1,216 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ObjIntConsumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Отображение int → значение без упаковки ключей: открытая адресация с линейным пробированием.
+ * Ключи разбиты на полосы по младшим битам, у каждой полосы своя блокировка чтения-записи,
+ * поэтому запись в одну полосу не останавливает чтение и запись в остальных.
+ * Значения null не хранятся: пустая ячейка отличается именно по null.
+ */
+public class StripedIntMap<V> {
+
+    private static final int STRIPES = 16;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public StripedIntMap() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    public V get(int key) {
+        Stripe stripe = stripeFor(key);
+        stripe.lock.readLock().lock();
+        try {
+            return cast(stripe.get(key));
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Значение не может быть null");
+        }
+        Stripe stripe = stripeFor(key);
+        stripe.lock.writeLock().lock();
+        try {
+            return cast(stripe.put(key, value));
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    }
+
+    public V remove(int key) {
+        Stripe stripe = stripeFor(key);
+        stripe.lock.writeLock().lock();
+        try {
+            return cast(stripe.remove(key));
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    }
+
+    // remapping получает текущее значение или null и выполняется под блокировкой полосы; null удаляет ключ
+    public V compute(int key, UnaryOperator<V> remapping) {
+        Stripe stripe = stripeFor(key);
+        stripe.lock.writeLock().lock();
+        try {
+            V updated = remapping.apply(cast(stripe.get(key)));
+            if (updated == null) {
+                stripe.remove(key);
+            } else {
+                stripe.put(key, updated);
+            }
+            return updated;
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.readLock().lock();
+            try {
+                size += stripe.size;
+            } finally {
+                stripe.lock.readLock().unlock();
+            }
+        }
+        return size;
+    }
+
+    // Обход без общего снимка: полосы просматриваются по очереди, порядок ключей не определён
+    public void forEach(ObjIntConsumer<V> action) {
+        for (Stripe stripe : stripes) {
+            stripe.lock.readLock().lock();
+            try {
+                for (int i = 0; i < stripe.values.length; i++) {
+                    if (stripe.values[i] != null) {
+                        action.accept(cast(stripe.values[i]), stripe.keys[i]);
+                    }
+                }
+            } finally {
+                stripe.lock.readLock().unlock();
+            }
+        }
+    }
+
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.writeLock().lock();
+            try {
+                stripe.keys = new int[INITIAL_CAPACITY];
+                stripe.values = new Object[INITIAL_CAPACITY];
+                stripe.size = 0;
+            } finally {
+                stripe.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private Stripe stripeFor(int key) {
+        return stripes[key & (STRIPES - 1)];
+    }
+
+    @SuppressWarnings("unchecked")
+    private V cast(Object value) {
+        return (V) value;
+    }
+
+    private static final class Stripe {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private int[] keys = new int[INITIAL_CAPACITY];
+        private Object[] values = new Object[INITIAL_CAPACITY];
+        private int size;
+
+        // Младшие биты уже выбрали полосу, поэтому внутри полосы ключ перемешивается целиком
+        private static int slot(int key, int mask) {
+            int hash = key * 0x9E3779B9;
+            return (hash ^ (hash >>> 16)) & mask;
+        }
+
+        Object get(int key) {
+            int mask = values.length - 1;
+            for (int i = slot(key, mask); values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+
+        Object put(int key, Object value) {
+            int mask = values.length - 1;
+            int i = slot(key, mask);
+            for (; values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    Object previous = values[i];
+                    values[i] = value;
+                    return previous;
+                }
+            }
+            keys[i] = key;
+            values[i] = value;
+            if (++size * 2 > values.length) {
+                resize();
+            }
+            return null;
+        }
+
+        Object remove(int key) {
+            int mask = values.length - 1;
+            int i = slot(key, mask);
+            while (values[i] != null && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (values[i] == null) {
+                return null;
+            }
+            Object previous = values[i];
+            values[i] = null;
+            size--;
+            // Сдвигаем назад хвост цепочки, чтобы поиск не обрывался на освободившейся ячейке
+            for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+                int home = slot(keys[j], mask);
+                boolean reachable = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+                if (!reachable) {
+                    keys[i] = keys[j];
+                    values[i] = values[j];
+                    values[j] = null;
+                    i = j;
+                }
+            }
+            return previous;
+        }
+
+        private void resize() {
+            int[] oldKeys = keys;
+            Object[] oldValues = values;
+            keys = new int[oldValues.length * 2];
+            values = new Object[oldValues.length * 2];
+            int mask = values.length - 1;
+            for (int j = 0; j < oldValues.length; j++) {
+                if (oldValues[j] != null) {
+                    int i = slot(oldKeys[j], mask);
+                    while (values[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[j];
+                    values[i] = oldValues[j];
+                }
+            }
+        }
+    }
+}
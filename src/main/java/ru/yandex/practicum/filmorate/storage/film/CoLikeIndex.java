@@ -0,0 +1,361 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.SortedInts;
+import ru.yandex.practicum.filmorate.storage.StripedIntMap;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Разреженная матрица совместных лайков «фильм × фильм»: для каждого фильма отсортированные
+ * id других фильмов и число пользователей, лайкнувших оба. Строки неизменяемы и заменяются
+ * целиком, поэтому чтение идёт без общей блокировки. Обновляется хранилищами при записи лайков,
+ * строится из БД при старте параллельно по диапазонам id фильмов.
+ * Лайк пересобирает строку фильма и строки всех фильмов, которые пользователь лайкал раньше:
+ * это O(суммы длин этих строк). Лайки одного пользователя идут по очереди под блокировкой его полосы,
+ * строки меняются под блокировками своих полос, поэтому лайки разных пользователей не ждут друг друга.
+ */
+@Slf4j
+@Component
+public class CoLikeIndex {
+
+    private static final int PARTITIONS_PER_THREAD = 4;
+
+    // Фильмы, лайкнутые пользователем, — отсортированные массивы
+    private final StripedIntMap<int[]> liked = new StripedIntMap<>();
+    private final StripedIntMap<Row> rows = new StripedIntMap<>();
+    // Лайки берут её на чтение и не мешают друг другу, перестроение — на запись
+    private final ReentrantReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    private record Row(int[] films, int[] counts) {
+
+        private static final Row EMPTY = new Row(SortedInts.EMPTY, SortedInts.EMPTY);
+
+        // Слияние с отсортированным списком фильмов: каждому прибавляется delta, нулевые счётчики выпадают
+        Row plus(int[] others, int delta) {
+            int[] mergedFilms = new int[films.length + others.length];
+            int[] mergedCounts = new int[mergedFilms.length];
+            int size = 0;
+            int i = 0;
+            int j = 0;
+            while (i < films.length || j < others.length) {
+                int film;
+                int count;
+                if (j == others.length || (i < films.length && films[i] < others[j])) {
+                    film = films[i];
+                    count = counts[i++];
+                } else if (i == films.length || others[j] < films[i]) {
+                    film = others[j++];
+                    count = delta;
+                } else {
+                    film = films[i];
+                    count = counts[i++] + delta;
+                    j++;
+                }
+                if (count > 0) {
+                    mergedFilms[size] = film;
+                    mergedCounts[size++] = count;
+                }
+            }
+            return size == 0 ? null : new Row(Arrays.copyOf(mergedFilms, size), Arrays.copyOf(mergedCounts, size));
+        }
+    }
+
+    public void addLike(int filmId, int userId) {
+        rebuildLock.readLock().lock();
+        try {
+            // Строки меняются внутри compute: следующий лайк того же пользователя увидит этот фильм
+            liked.compute(userId, films -> {
+                int[] current = films == null ? SortedInts.EMPTY : films;
+                if (SortedInts.contains(current, filmId)) {
+                    return films;
+                }
+                changeRows(filmId, current, 1);
+                return SortedInts.insert(current, filmId);
+            });
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    public void removeLike(int filmId, int userId) {
+        rebuildLock.readLock().lock();
+        try {
+            liked.compute(userId, films -> {
+                if (films == null || !SortedInts.contains(films, filmId)) {
+                    return films;
+                }
+                int[] others = SortedInts.remove(films, filmId);
+                changeRows(filmId, others, -1);
+                return others.length == 0 ? null : others;
+            });
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    // Похожие фильмы: больше общих лайков — выше, при равенстве меньший id
+    public int[] getSimilar(int filmId, int count) {
+        Row row = rows.get(filmId);
+        return row == null ? SortedInts.EMPTY : topK(row.films(), row.counts(), row.films().length, count, null);
+    }
+
+    // Сумма строк матрицы по всем лайкнутым фильмам без уже лайкнутых
+    public int[] getRecommendations(int userId, int count) {
+        int[] films = liked.get(userId);
+        if (films == null) {
+            return SortedInts.EMPTY;
+        }
+        IntCounter scores = new IntCounter(films.length * 16);
+        for (int filmId : films) {
+            Row row = rows.get(filmId);
+            if (row != null) {
+                for (int i = 0; i < row.films().length; i++) {
+                    scores.add(row.films()[i], row.counts()[i]);
+                }
+            }
+        }
+        return topK(scores.keys(), scores.values(), scores.size(), count, films);
+    }
+
+    // filmIds и userIds — столбцы таблицы likes одинаковой длины
+    public void rebuild(int[] filmIds, int[] userIds) {
+        rebuildLock.writeLock().lock();
+        try {
+            rebuildLocked(filmIds, userIds);
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    private void rebuildLocked(int[] filmIds, int[] userIds) {
+        long started = System.nanoTime();
+        int[][] usersByFilm = SortedInts.group(filmIds, userIds);
+        int[][] filmsByUser = SortedInts.group(userIds, filmIds);
+        Row[] built = new Row[usersByFilm.length];
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        int threshold = Math.max(64, usersByFilm.length / (parallelism * PARTITIONS_PER_THREAD));
+        ForkJoinPool.commonPool().invoke(new BuildRows(usersByFilm, filmsByUser, built, 0, built.length, threshold));
+
+        liked.clear();
+        rows.clear();
+        long entries = 0;
+        for (int id = 0; id < built.length; id++) {
+            if (built[id] != null) {
+                rows.put(id, built[id]);
+                entries += built[id].films().length;
+            }
+        }
+        for (int id = 0; id < filmsByUser.length; id++) {
+            if (filmsByUser[id] != null) {
+                liked.put(id, filmsByUser[id]);
+            }
+        }
+        log.info("Матрица совместных лайков построена за {} мс: {} лайков, {} ненулевых ячеек",
+                (System.nanoTime() - started) / 1_000_000, filmIds.length, entries);
+    }
+
+    private void changeRows(int filmId, int[] others, int delta) {
+        if (others.length == 0) {
+            return;
+        }
+        rows.compute(filmId, row -> (row == null ? Row.EMPTY : row).plus(others, delta));
+        int[] self = {filmId};
+        for (int other : others) {
+            rows.compute(other, row -> (row == null ? Row.EMPTY : row).plus(self, delta));
+        }
+    }
+
+    // Лучшие count позиций: куча из индексов, на вершине худший из отобранных
+    private static int[] topK(int[] films, int[] scores, int size, int count, int[] exclude) {
+        int[] heap = new int[Math.min(count, size)];
+        int heapSize = 0;
+        for (int i = 0; i < size; i++) {
+            if (exclude != null && SortedInts.contains(exclude, films[i])) {
+                continue;
+            }
+            if (heapSize < heap.length) {
+                heap[heapSize] = i;
+                siftUp(heap, heapSize++, films, scores);
+            } else if (heap.length > 0 && better(i, heap[0], films, scores)) {
+                heap[0] = i;
+                siftDown(heap, heapSize, films, scores);
+            }
+        }
+        int[] result = new int[heapSize];
+        for (int position = heapSize - 1; position >= 0; position--) {
+            result[position] = films[heap[0]];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize, films, scores);
+        }
+        return result;
+    }
+
+    private static boolean better(int a, int b, int[] films, int[] scores) {
+        return scores[a] != scores[b] ? scores[a] > scores[b] : films[a] < films[b];
+    }
+
+    private static void siftUp(int[] heap, int position, int[] films, int[] scores) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (!better(heap[parent], heap[position], films, scores)) {
+                return;
+            }
+            swap(heap, parent, position);
+            position = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, int[] films, int[] scores) {
+        int position = 0;
+        while (true) {
+            int worst = position;
+            for (int child = 2 * position + 1; child <= 2 * position + 2 && child < size; child++) {
+                if (better(heap[worst], heap[child], films, scores)) {
+                    worst = child;
+                }
+            }
+            if (worst == position) {
+                return;
+            }
+            swap(heap, worst, position);
+            position = worst;
+        }
+    }
+
+    private static void swap(int[] heap, int a, int b) {
+        int tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
+    }
+
+    // Строки матрицы для диапазона id фильмов; у каждой листовой задачи свой плотный массив счётчиков
+    private static final class BuildRows extends RecursiveAction {
+
+        private final int[][] usersByFilm;
+        private final int[][] filmsByUser;
+        private final Row[] built;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        BuildRows(int[][] usersByFilm, int[][] filmsByUser, Row[] built, int from, int to, int threshold) {
+            this.usersByFilm = usersByFilm;
+            this.filmsByUser = filmsByUser;
+            this.built = built;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > threshold) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BuildRows(usersByFilm, filmsByUser, built, from, middle, threshold),
+                        new BuildRows(usersByFilm, filmsByUser, built, middle, to, threshold));
+                return;
+            }
+            int[] counts = new int[built.length];
+            int[] touched = new int[64];
+            for (int filmId = from; filmId < to; filmId++) {
+                if (usersByFilm[filmId] == null) {
+                    continue;
+                }
+                int size = 0;
+                for (int userId : usersByFilm[filmId]) {
+                    for (int other : filmsByUser[userId]) {
+                        if (other != filmId && counts[other]++ == 0) {
+                            if (size == touched.length) {
+                                touched = Arrays.copyOf(touched, size * 2);
+                            }
+                            touched[size++] = other;
+                        }
+                    }
+                }
+                if (size == 0) {
+                    continue;
+                }
+                Arrays.sort(touched, 0, size);
+                int[] films = Arrays.copyOf(touched, size);
+                int[] rowCounts = new int[size];
+                for (int i = 0; i < size; i++) {
+                    rowCounts[i] = counts[films[i]];
+                    counts[films[i]] = 0;
+                }
+                built[filmId] = new Row(films, rowCounts);
+            }
+        }
+    }
+
+    // Счётчик int → int на открытой адресации для суммирования строк без упаковки
+    private static final class IntCounter {
+
+        private int[] slots;
+        private int[] keys;
+        private int[] values;
+        private int size;
+
+        IntCounter(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(16, expected * 2) - 1) << 1;
+            slots = new int[capacity];
+            Arrays.fill(slots, -1);
+            keys = new int[capacity / 2];
+            values = new int[capacity / 2];
+        }
+
+        void add(int key, int delta) {
+            int mask = slots.length - 1;
+            int slot = slot(key, mask);
+            while (slots[slot] >= 0) {
+                if (keys[slots[slot]] == key) {
+                    values[slots[slot]] += delta;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = size;
+            keys[size] = key;
+            values[size++] = delta;
+            if (size * 2 >= slots.length) {
+                grow();
+            }
+        }
+
+        int[] keys() {
+            return keys;
+        }
+
+        int[] values() {
+            return values;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private static int slot(int key, int mask) {
+            int hash = key * 0x9E3779B9;
+            return (hash ^ (hash >>> 16)) & mask;
+        }
+
+        private void grow() {
+            keys = Arrays.copyOf(keys, keys.length * 2);
+            values = Arrays.copyOf(values, values.length * 2);
+            slots = new int[slots.length * 2];
+            Arrays.fill(slots, -1);
+            int mask = slots.length - 1;
+            for (int i = 0; i < size; i++) {
+                int slot = slot(keys[i], mask);
+                while (slots[slot] >= 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = i;
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Кэш собранных фильмов перед FilmDbStorage.
+ * Вытесняет давно не читанные записи при превышении размера и записи старше TTL.
+ * Наружу всегда отдаются копии, чтобы изменение полученного фильма не портило кэш.
+ */
+@Component
+public class FilmCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<Integer, CachedFilm> films = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    // Меняется при каждой инвалидации: загрузка, начатая до неё, не попадёт в кэш
+    private long generation;
+
+    public FilmCache(@Value("${filmorate.cache.films.max-size:10000}") int maxSize,
+                     @Value("${filmorate.cache.films.ttl:10m}") Duration ttl) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public Film get(int filmId, IntFunction<Film> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            CachedFilm cached = films.get(filmId);
+            if (cached != null && !cached.isExpired(System.nanoTime())) {
+                hits.incrementAndGet();
+                return copyOf(cached.film);
+            }
+            if (cached != null) {
+                films.remove(filmId);
+                evictions.incrementAndGet();
+            }
+            loadGeneration = generation;
+        }
+        misses.incrementAndGet();
+        Film loaded = loader.apply(filmId);
+        put(filmId, loaded, loadGeneration);
+        return copyOf(loaded);
+    }
+
+    public synchronized void invalidate(int filmId) {
+        generation++;
+        films.remove(filmId);
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        films.clear();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public synchronized int size() {
+        return films.size();
+    }
+
+    private synchronized void put(int filmId, Film film, long loadGeneration) {
+        if (maxSize <= 0 || loadGeneration != generation) {
+            return;
+        }
+        films.put(filmId, new CachedFilm(copyOf(film), System.nanoTime() + ttlNanos));
+        Iterator<CachedFilm> eldest = films.values().iterator();
+        while (films.size() > maxSize && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static Film copyOf(Film film) {
+        return Film.builder()
+                .id(film.getId())
+                .name(film.getName())
+                .description(film.getDescription())
+                .releaseDate(film.getReleaseDate())
+                .duration(film.getDuration())
+                .mpa(film.getMpa())
+                .genres(new LinkedHashSet<>(film.getGenres()))
+                .build();
+    }
+
+    private record CachedFilm(Film film, long expiresAt) {
+
+        boolean isExpired(long now) {
+            return now - expiresAt > 0;
+        }
+    }
+}
@@ -1,80 +1,240 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
-import org.springframework.jdbc.support.rowset.SqlRowSet;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
-import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
-import ru.yandex.practicum.filmorate.model.RatingMpa;
+import ru.yandex.practicum.filmorate.storage.KnownIds;
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Repository
+@Profile("!memory")
 public class FilmDbStorage implements FilmStorage {
 
-    private final JdbcTemplate jdbcTemplate;
+    private static final int BATCH_SIZE = 1000;
+    private static final int EXPORT_FETCH_SIZE = 500;
 
-    public FilmDbStorage(JdbcTemplate jdbcTemplate) {
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate exportJdbcTemplate;
+    private final PopularFilmsIndex popularFilmsIndex;
+    private final CoLikeIndex coLikeIndex;
+    private final FilmSearchIndex searchIndex;
+    private final FilmFacetIndex facetIndex;
+    private final FilmCache filmCache;
+    private final KnownIds knownIds = new KnownIds();
+    private final FilmWithGenresExtractor filmsExtractor = new FilmWithGenresExtractor();
+    // Метаданные таблицы читаются при первой вставке, дальше оператор переиспользуется
+    private final SimpleJdbcInsert filmInsert;
+
+    public FilmDbStorage(JdbcTemplate jdbcTemplate, PopularFilmsIndex popularFilmsIndex, CoLikeIndex coLikeIndex,
+                         FilmSearchIndex searchIndex, FilmFacetIndex facetIndex, FilmCache filmCache) {
         this.jdbcTemplate = jdbcTemplate;
+        this.filmInsert = new SimpleJdbcInsert(jdbcTemplate)
+                .withTableName("films")
+                .usingColumns("film_name", "description", "duration", "release_date", "rating_id")
+                .usingGeneratedKeyColumns("film_id");
+        this.popularFilmsIndex = popularFilmsIndex;
+        this.coLikeIndex = coLikeIndex;
+        this.searchIndex = searchIndex;
+        this.facetIndex = facetIndex;
+        this.filmCache = filmCache;
+        this.exportJdbcTemplate = new JdbcTemplate(Objects.requireNonNull(jdbcTemplate.getDataSource()));
+        this.exportJdbcTemplate.setFetchSize(EXPORT_FETCH_SIZE);
     }
 
-    @Override
-    public List<Film> getAllFilms() {
-        String sqlQuery = "SELECT * "
-                + "FROM films "
-                + "JOIN rating_mpa ON films.rating_id = rating_mpa.rating_id";
+    @PostConstruct
+    public void loadKnownIds() {
+        knownIds.rebuild(jdbcTemplate.queryForList("SELECT film_id FROM films", Integer.class));
+    }
+
+    @PostConstruct
+    public void loadSearchIndex() {
+        searchIndex.clear();
+        int[] films = new int[1];
+        jdbcTemplate.query("SELECT film_id, film_name, description FROM films ORDER BY film_id", rs -> {
+            searchIndex.addFilm(rs.getInt("film_id"), rs.getString("film_name"), rs.getString("description"));
+            films[0]++;
+        });
+        log.info("Поисковый индекс построен: {} фильмов", films[0]);
+    }
 
-        // Выполняем запрос и собираем фильмы
-        return jdbcTemplate.query(sqlQuery, (rs, rowNum) -> {
-            int filmId = rs.getInt("film_id");
-            String name = rs.getString("film_name");
-            String description = rs.getString("description");
-            Long duration = rs.getLong("duration");
+    @PostConstruct
+    public void loadFacetIndex() {
+        facetIndex.clear();
+        // Строки одного фильма идут подряд: жанры копятся, пока не сменится film_id
+        String sqlQuery = "SELECT f.film_id, f.rating_id, f.release_date, fg.genre_id "
+                + "FROM films f "
+                + "LEFT JOIN film_genres fg ON fg.film_id = f.film_id "
+                + "ORDER BY f.film_id, fg.genre_id";
+        Integer films = jdbcTemplate.query(sqlQuery, (ResultSetExtractor<Integer>) rs -> {
+            int count = 0;
+            int filmId = Integer.MIN_VALUE;
+            int mpaId = 0;
+            int year = 0;
+            int[] genreIds = new int[8];
+            int genres = 0;
+            while (rs.next()) {
+                if (rs.getInt("film_id") != filmId) {
+                    if (filmId != Integer.MIN_VALUE) {
+                        indexFilm(filmId, mpaId, Arrays.copyOf(genreIds, genres), year);
+                        count++;
+                    }
+                    filmId = rs.getInt("film_id");
+                    mpaId = rs.getInt("rating_id");
+                    year = rs.getDate("release_date").toLocalDate().getYear();
+                    genres = 0;
+                }
+                int genreId = rs.getInt("genre_id");
+                if (!rs.wasNull()) {
+                    if (genres == genreIds.length) {
+                        genreIds = Arrays.copyOf(genreIds, genres * 2);
+                    }
+                    genreIds[genres++] = genreId;
+                }
+            }
+            if (filmId != Integer.MIN_VALUE) {
+                indexFilm(filmId, mpaId, Arrays.copyOf(genreIds, genres), year);
+                count++;
+            }
+            return count;
+        });
+        log.info("Индекс фасетов построен: {} фильмов", films);
+    }
 
-            LocalDate releaseDate = rs.getTimestamp("release_date") != null
-                    ? rs.getTimestamp("release_date").toLocalDateTime().toLocalDate()
-                    : null;
+    // Тот же проход раскладывает фильмы по рейтингам популярности жанров и лет
+    private void indexFilm(int filmId, int mpaId, int[] genreIds, int year) {
+        facetIndex.addFilm(filmId, mpaId, genreIds, year);
+        popularFilmsIndex.addFilm(filmId, genreIds, year);
+    }
 
-            int mpaId = rs.getInt("rating_id");
-            String mpaName = rs.getString("rating_name");
-            RatingMpa mpa = new RatingMpa(mpaId, mpaName);
+    @Override
+    public List<Film> getAllFilms() {
+        String sqlQuery = FilmWithGenresExtractor.SELECT
+                + "FROM films "
+                + FilmWithGenresExtractor.JOIN_GENRES
+                + FilmWithGenresExtractor.ORDER_BY;
+        return jdbcTemplate.query(sqlQuery, filmsExtractor);
+    }
 
-            Set<Genre> genres = getGenres(filmId);
+    @Override
+    public List<Film> getFilmsPage(int afterId, int limit) {
+        // Keyset-пагинация: диапазон по первичному ключу вместо OFFSET.
+        // LIMIT считает фильмы, а не строки join, поэтому страница выбирается подзапросом
+        String sqlQuery = FilmWithGenresExtractor.SELECT
+                + "FROM (SELECT * FROM films WHERE film_id > ? ORDER BY film_id LIMIT ?) films "
+                + FilmWithGenresExtractor.JOIN_GENRES
+                + FilmWithGenresExtractor.ORDER_BY;
+        return jdbcTemplate.query(sqlQuery, filmsExtractor, afterId, limit);
+    }
 
-            return buildFilm(filmId, name, description, duration, releaseDate, mpa, genres);
+    @Override
+    public void exportFilms(Consumer<Film> consumer) {
+        // Фильмы отдаются по мере чтения курсора, весь каталог в памяти не собирается
+        String sqlQuery = FilmWithGenresExtractor.SELECT
+                + "FROM films "
+                + FilmWithGenresExtractor.JOIN_GENRES
+                + FilmWithGenresExtractor.ORDER_BY;
+        exportJdbcTemplate.query(sqlQuery, (ResultSetExtractor<Void>) rs -> {
+            FilmWithGenresExtractor.forEachFilm(rs, consumer);
+            return null;
         });
     }
 
     @Override
     public Film createFilm(Film film) {
-        Map<String, Object> keys = new SimpleJdbcInsert(this.jdbcTemplate)
-                .withTableName("films")
-                .usingColumns("film_name", "description", "duration", "release_date", "rating_id")
-                .usingGeneratedKeyColumns("film_id")
-                .executeAndReturnKeyHolder(Map.of("film_name", film.getName(),
+        Map<String, Object> keys = filmInsert.executeAndReturnKeyHolder(Map.of(
+                        "film_name", film.getName(),
                         "description", film.getDescription(),
                         "duration", film.getDuration(),
                         "release_date", java.sql.Date.valueOf(film.getReleaseDate()),
                         "rating_id", film.getMpa().getId()))
                 .getKeys();
         film.setId((Integer) keys.get("film_id"));
-        addGenre((Integer) keys.get("film_id"), film.getGenres());
+        // Фильм только что создан, удалять старые жанры незачем
+        insertGenres(film.getId(), film.getGenres() == null ? List.of()
+                : film.getGenres().stream().map(Genre::getId).toList());
+        filmCache.invalidate(film.getId());
+        knownIds.add(film.getId());
+        popularFilmsIndex.addFilm(film);
+        searchIndex.addFilm(film.getId(), film.getName(), film.getDescription());
+        facetIndex.addFilm(film);
         return film;
     }
 
     @Override
+    @Transactional
+    public List<Film> createFilms(List<Film> films) {
+        // Фильмы и их жанры уходят пачками по BATCH_SIZE строк, всё в одной транзакции
+        String filmsQuery = "INSERT INTO films (film_name, description, duration, release_date, rating_id) "
+                + "VALUES (?, ?, ?, ?, ?)";
+        for (int from = 0; from < films.size(); from += BATCH_SIZE) {
+            List<Film> batch = films.subList(from, Math.min(from + BATCH_SIZE, films.size()));
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(filmsQuery, new String[]{"film_id"}),
+                    new BatchPreparedStatementSetter() {
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            Film film = batch.get(i);
+                            ps.setString(1, film.getName());
+                            ps.setString(2, film.getDescription());
+                            ps.setLong(3, film.getDuration());
+                            ps.setDate(4, java.sql.Date.valueOf(film.getReleaseDate()));
+                            ps.setInt(5, film.getMpa().getId());
+                        }
+
+                        public int getBatchSize() {
+                            return batch.size();
+                        }
+                    }, keyHolder);
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).setId(((Number) keys.get(i).get("film_id")).intValue());
+            }
+        }
+
+        List<int[]> filmGenres = new ArrayList<>();
+        for (Film film : films) {
+            if (film.getGenres() != null) {
+                film.getGenres().forEach(genre -> filmGenres.add(new int[]{film.getId(), genre.getId()}));
+            }
+        }
+        String genresQuery = "INSERT INTO film_genres (film_id, genre_id) "
+                + "VALUES (?, ?)";
+        jdbcTemplate.batchUpdate(genresQuery, filmGenres, BATCH_SIZE, (ps, pair) -> {
+            ps.setInt(1, pair[0]);
+            ps.setInt(2, pair[1]);
+        });
+
+        for (Film film : films) {
+            filmCache.invalidate(film.getId());
+            knownIds.add(film.getId());
+            popularFilmsIndex.addFilm(film);
+            searchIndex.addFilm(film.getId(), film.getName(), film.getDescription());
+            facetIndex.addFilm(film);
+        }
+        return films;
+    }
+
+    @Override
+    @Transactional
     public Film updateFilm(Film film) {
-        getFilmById(film.getId());
+        if (!existsById(film.getId())) {
+            throw new NotFoundException("Movie with ID = " + film.getId() + " not found");
+        }
         String sqlQuery = "UPDATE films "
                 + "SET film_name = ?, "
                 + "description = ?, "
@@ -84,192 +244,149 @@ public class FilmDbStorage implements FilmStorage {
                 + "WHERE film_id = ?";
         jdbcTemplate.update(sqlQuery, film.getName(), film.getDescription(), film.getDuration(),
                 film.getReleaseDate(), film.getMpa().getId(), film.getId());
-        addGenre(film.getId(), film.getGenres());
-        int filmId = film.getId();
-        film.setGenres(getGenres(filmId));
-        return getFilmById(filmId);
+        updateGenres(film.getId(), film.getGenres());
+        filmCache.invalidate(film.getId());
+        searchIndex.addFilm(film.getId(), film.getName(), film.getDescription());
+        facetIndex.addFilm(film);
+        popularFilmsIndex.addFilm(film);
+        // Возвращаем то, что записали, без повторного чтения; жанры в том же порядке, что и при загрузке
+        Set<Genre> genres = new TreeSet<>(Comparator.comparingInt(Genre::getId));
+        if (film.getGenres() != null) {
+            genres.addAll(film.getGenres());
+        }
+        film.setGenres(new LinkedHashSet<>(genres));
+        return film;
     }
 
     @Override
     public Film getFilmById(int filmId) {
-        String sqlQuery = "SELECT * FROM films "
-                + "JOIN rating_mpa ON films.rating_id = rating_mpa.rating_id "
-                + "WHERE film_id = ?";
-        SqlRowSet srs = jdbcTemplate.queryForRowSet(sqlQuery, filmId);
-        if (srs.next()) {
-            return filmMap(srs);
-        } else {
+        return filmCache.get(filmId, this::loadFilmById);
+    }
+
+    @Override
+    public boolean existsById(int filmId) {
+        return getMissingIds(List.of(filmId)).isEmpty();
+    }
+
+    @Override
+    public List<Integer> getMissingIds(Collection<Integer> filmIds) {
+        return knownIds.getMissing(filmIds, this::findExistingIds);
+    }
+
+    private List<Integer> findExistingIds(List<Integer> filmIds) {
+        String inSql = String.join(", ", Collections.nCopies(filmIds.size(), "?"));
+        String sqlQuery = "SELECT film_id FROM films WHERE film_id IN (" + inSql + ")";
+        return jdbcTemplate.queryForList(sqlQuery, Integer.class, filmIds.toArray());
+    }
+
+    private Film loadFilmById(int filmId) {
+        String sqlQuery = FilmWithGenresExtractor.SELECT
+                + "FROM films "
+                + FilmWithGenresExtractor.JOIN_GENRES
+                + "WHERE films.film_id = ? "
+                + FilmWithGenresExtractor.ORDER_BY;
+        List<Film> films = jdbcTemplate.query(sqlQuery, filmsExtractor, filmId);
+        if (films.isEmpty()) {
             throw new NotFoundException("Movie with ID = " + filmId + " not found");
         }
+        return films.get(0);
+    }
+
+    private void updateGenres(int filmId, Set<Genre> genres) {
+        Set<Integer> wanted = genres == null ? Set.of() : genres.stream()
+                .map(Genre::getId)
+                .collect(Collectors.toSet());
+        Set<Integer> stored = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT genre_id FROM film_genres WHERE film_id = ?", Integer.class, filmId));
+
+        // Трогаем только разницу: неизменившиеся жанры не удаляются и не вставляются заново
+        List<Integer> removed = stored.stream().filter(id -> !wanted.contains(id)).toList();
+        List<Integer> added = wanted.stream().filter(id -> !stored.contains(id)).toList();
+        if (!removed.isEmpty()) {
+            String inSql = String.join(", ", Collections.nCopies(removed.size(), "?"));
+            List<Object> args = new ArrayList<>(removed.size() + 1);
+            args.add(filmId);
+            args.addAll(removed);
+            jdbcTemplate.update("DELETE FROM film_genres WHERE film_id = ? AND genre_id IN (" + inSql + ")",
+                    args.toArray());
+        }
+        insertGenres(filmId, added);
     }
 
-    private void addGenre(int filmId, Set<Genre> genres) {
-        deleteAllGenresById(filmId);
-        if (genres == null || genres.isEmpty()) {
+    private void insertGenres(int filmId, List<Integer> genreIds) {
+        if (genreIds.isEmpty()) {
             return;
         }
         String sqlQuery = "INSERT INTO film_genres (film_id, genre_id) "
                 + "VALUES (?, ?)";
-        List<Genre> genresTable = new ArrayList<>(genres);
         this.jdbcTemplate.batchUpdate(sqlQuery, new BatchPreparedStatementSetter() {
             public void setValues(PreparedStatement ps, int i) throws SQLException {
                 ps.setInt(1, filmId);
-                ps.setInt(2, genresTable.get(i).getId());
+                ps.setInt(2, genreIds.get(i));
             }
 
             public int getBatchSize() {
-                return genresTable.size();
+                return genreIds.size();
             }
         });
     }
 
-    private Set<Genre> getGenres(int filmId) {
-        Set<Genre> result = new LinkedHashSet<>();
-        String sqlQuery = "SELECT g.genre_id, g.genre_name FROM film_genres fg "
-                + "JOIN genres g ON fg.genre_id = g.genre_id "
-                + "WHERE fg.film_id = ? ORDER BY fg.genre_id ASC";
-
-        jdbcTemplate.query(sqlQuery, rs -> {
-            int genreId = rs.getInt("genre_id");
-            String genreName = rs.getString("genre_name");
-
-            if (genreName == null || genreName.isEmpty()) {
-                throw new ValidationException("Genre with id=" + genreId + " has empty name");
-            }
-
-            result.add(new Genre(genreId, genreName));
-        }, filmId);
-
-        return result;
-    }
-
-    private void deleteAllGenresById(int filmId) {
-        String sglQuery = "DELETE FROM film_genres WHERE film_id = ?";
-        jdbcTemplate.update(sglQuery, filmId);
-    }
-
     @Override
     public void addLike(int filmId, int userId) {
         String sqlQuery = "INSERT INTO likes (film_id, user_id) "
                 + "VALUES (?, ?)";
-        jdbcTemplate.update(sqlQuery, filmId, userId);
+        if (jdbcTemplate.update(sqlQuery, filmId, userId) > 0) {
+            popularFilmsIndex.addLike(filmId);
+            coLikeIndex.addLike(filmId, userId);
+        }
     }
 
     @Override
     public void removeLike(int filmId, int userId) {
         String sqlQuery = "DELETE likes "
                 + "WHERE film_id = ? AND user_id = ?";
-        jdbcTemplate.update(sqlQuery, filmId, userId);
+        if (jdbcTemplate.update(sqlQuery, filmId, userId) > 0) {
+            popularFilmsIndex.removeLike(filmId);
+            coLikeIndex.removeLike(filmId, userId);
+        }
     }
 
     @Override
     public List<Film> getMostPopularFilms(int count) {
-        String sqlQuery = "SELECT films.film_id, films.film_name, films.description, films.duration, "
-                + "films.release_date, films.rating_id, rating_mpa.rating_name "
-                + "FROM films "
-                + "LEFT JOIN likes ON likes.film_id = films.film_id "
-                + "JOIN rating_mpa ON films.rating_id = rating_mpa.rating_id "
-                + "GROUP BY films.film_id "
-                + "ORDER BY COUNT(likes.film_id) DESC "
-                + "LIMIT ?";
-
-        return jdbcTemplate.query(sqlQuery, (rs, rowNum) -> {
-            int filmId = rs.getInt("film_id");
-            String name = rs.getString("film_name");
-            String description = rs.getString("description");
-            Long duration = rs.getLong("duration");
-
-            LocalDate releaseDate = rs.getTimestamp("release_date") != null
-                    ? rs.getTimestamp("release_date").toLocalDateTime().toLocalDate()
-                    : null;
-
-            int mpaId = rs.getInt("rating_id");
-            String mpaName = rs.getString("rating_name");
-            RatingMpa mpa = new RatingMpa(mpaId, mpaName);
-
-            Set<Genre> genres = getGenres(filmId); // Получаем жанры для каждого фильма
-
-            return buildFilm(filmId, name, description, duration, releaseDate, mpa, genres);
-        }, count);
+        return getMostPopularFilms(count, null, null);
     }
 
-    private List<Film> addGenreForList(List<Film> films) {
-        Map<Integer, Film> filmsTable = films.stream().collect(Collectors.toMap(Film::getId, film -> film));
-        String inSql = String.join(", ", Collections.nCopies(filmsTable.size(), "?"));
-        final String sqlQuery = "SELECT * "
-                + "FROM film_genres "
-                + "LEFT OUTER JOIN genres ON film_genres.genre_id = genres.genre_id "
-                + "WHERE film_genres.film_id IN (" + inSql + ") "
-                + "ORDER BY film_genres.genre_id";
-        jdbcTemplate.query(sqlQuery, (rs) -> {
-            Film film = filmsTable.get(rs.getInt("film_id"));
-            if (film != null) {
-                film.addGenre(new Genre(rs.getInt("genre_id"), rs.getString("genre_name")));
-            }
-        }, filmsTable.keySet().toArray());
-        return new ArrayList<>(filmsTable.values());
-    }
-
-    private Genre makeGenre(ResultSet rs, int id) throws SQLException {
-        int genreId = rs.getInt("genre_id");
-        String genreName = rs.getString("genre_name");
-        return new Genre(genreId, genreName);
+    @Override
+    public List<Film> getMostPopularFilms(int count, Integer genreId, Integer year) {
+        // Порядок берём из индекса лайков, таблицу likes не читаем
+        return getFilmsByIds(popularFilmsIndex.getTop(count, genreId, year).stream()
+                .mapToInt(Integer::intValue)
+                .toArray());
     }
 
-    private Film makeFilm(ResultSet rs) throws SQLException {
-        int filmId = rs.getInt("film_id");
-        String name = rs.getString("film_name");
-        String description = rs.getString("description");
-        Long duration = rs.getLong("duration");
-
-        LocalDate releaseDate = rs.getTimestamp("release_date") != null
-                ? rs.getTimestamp("release_date").toLocalDateTime().toLocalDate()
-                : null;
-
-        int mpaId = rs.getInt("rating_id");
-        String mpaName = rs.getString("rating_name");
-        RatingMpa mpa = new RatingMpa(mpaId, mpaName);
-
-        Set<Genre> genres = new HashSet<>();
-        do {
-            int genreId = rs.getInt("genre_id");
-            String genreName = rs.getString("genre_name");
-            if (genreId != 0 && genreName != null) {
-                genres.add(new Genre(genreId, genreName));
+    @Override
+    public List<Film> getFilmsByIds(int[] filmIds) {
+        // Читаем мимо кэша фильмов: широкая выборка вытеснила бы из него горячие фильмы
+        Map<Integer, Film> loaded = new HashMap<>(filmIds.length * 2);
+        // Режем список на пачки, чтобы не упираться в лимит параметров IN
+        for (int from = 0; from < filmIds.length; from += BATCH_SIZE) {
+            int to = Math.min(from + BATCH_SIZE, filmIds.length);
+            Object[] batch = Arrays.stream(filmIds, from, to).boxed().toArray();
+            String inSql = String.join(", ", Collections.nCopies(batch.length, "?"));
+            String sqlQuery = FilmWithGenresExtractor.SELECT
+                    + "FROM films "
+                    + FilmWithGenresExtractor.JOIN_GENRES
+                    + "WHERE films.film_id IN (" + inSql + ") "
+                    + FilmWithGenresExtractor.ORDER_BY;
+            jdbcTemplate.query(sqlQuery, filmsExtractor, batch).forEach(film -> loaded.put(film.getId(), film));
+        }
+        List<Film> films = new ArrayList<>(loaded.size());
+        for (int filmId : filmIds) {
+            Film film = loaded.get(filmId);
+            if (film != null) {
+                films.add(film);
             }
-        } while (rs.next());
-
-        return buildFilm(filmId, name, description, duration, releaseDate, mpa, genres);
-    }
-
-    private Film filmMap(SqlRowSet srs) {
-        int filmId = srs.getInt("film_id");
-        String name = srs.getString("film_name");
-        String description = srs.getString("description");
-        Long duration = srs.getLong("duration");
-
-        LocalDate releaseDate = Objects.requireNonNull(srs.getTimestamp("release_date"))
-                .toLocalDateTime().toLocalDate();
-
-        int mpaId = srs.getInt("rating_id");
-        String mpaName = srs.getString("rating_name");
-        RatingMpa mpa = new RatingMpa(mpaId, mpaName);
-
-        Set<Genre> genres = getGenres(filmId);
-
-        return buildFilm(filmId, name, description, duration, releaseDate, mpa, genres);
-    }
-
-    private Film buildFilm(int filmId, String name, String description, Long duration,
-                           LocalDate releaseDate, RatingMpa mpa, Set<Genre> genres) {
-        return Film.builder()
-                .id(filmId)
-                .name(name)
-                .description(description)
-                .duration(duration)
-                .releaseDate(releaseDate)
-                .mpa(mpa)
-                .genres(genres)
-                .build();
+        }
+        return films;
     }
-}
\ No newline at end of file
+}
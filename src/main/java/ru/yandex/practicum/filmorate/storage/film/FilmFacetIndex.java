@@ -0,0 +1,183 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFacets;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.IntBitmap;
+import ru.yandex.practicum.filmorate.storage.SortedInts;
+import ru.yandex.practicum.filmorate.storage.StripedIntMap;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Битовые карты id фильмов по жанру, рейтингу MPA, году и десятилетию выхода.
+ * Фильтр собирается из них пересечением и объединением, счётчики фасетов — мощностью
+ * пересечений, так что ни фильтр, ни фасеты не читают БД. Диапазон лет покрывается
+ * картами целых десятилетий и отдельных лет по краям.
+ */
+@Component
+public class FilmFacetIndex {
+
+    private static final int DECADE = 10;
+
+    private record Entry(int mpaId, int[] genreIds, int year) {
+    }
+
+    private IntBitmap all = new IntBitmap();
+    private final Map<Integer, IntBitmap> byGenre = new HashMap<>();
+    private final Map<Integer, IntBitmap> byMpa = new HashMap<>();
+    private final Map<Integer, IntBitmap> byYear = new HashMap<>();
+    private final Map<Integer, IntBitmap> byDecade = new HashMap<>();
+    // Текущие значения полей фильма, чтобы при обновлении снять его со старых карт
+    private final StripedIntMap<Entry> entries = new StripedIntMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void addFilm(Film film) {
+        int[] genreIds = film.getGenres() == null ? SortedInts.EMPTY
+                : film.getGenres().stream().mapToInt(Genre::getId).sorted().distinct().toArray();
+        addFilm(film.getId(), film.getMpa().getId(), genreIds, film.getReleaseDate().getYear());
+    }
+
+    public void addFilm(int filmId, int mpaId, int[] genreIds, int year) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.put(filmId, new Entry(mpaId, genreIds, year));
+            if (previous != null) {
+                unset(byMpa, previous.mpaId(), filmId);
+                for (int genreId : previous.genreIds()) {
+                    unset(byGenre, genreId, filmId);
+                }
+                unset(byYear, previous.year(), filmId);
+                unset(byDecade, decade(previous.year()), filmId);
+            }
+            all.add(filmId);
+            byMpa.computeIfAbsent(mpaId, key -> new IntBitmap()).add(filmId);
+            for (int genreId : genreIds) {
+                byGenre.computeIfAbsent(genreId, key -> new IntBitmap()).add(filmId);
+            }
+            byYear.computeIfAbsent(year, key -> new IntBitmap()).add(filmId);
+            byDecade.computeIfAbsent(decade(year), key -> new IntBitmap()).add(filmId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            all = new IntBitmap();
+            byGenre.clear();
+            byMpa.clear();
+            byYear.clear();
+            byDecade.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Id подходящих фильмов больше afterId по возрастанию, не больше limit
+    public int[] filter(FilmFilter filter, int afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            IntBitmap matched = intersect(intersect(union(byGenre, filter.getGenre()), union(byMpa, filter.getMpa())),
+                    years(filter.getYearFrom(), filter.getYearTo()));
+            return (matched == null ? all : matched).page(afterId, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public FilmFacets facets(FilmFilter filter) {
+        lock.readLock().lock();
+        try {
+            IntBitmap genres = union(byGenre, filter.getGenre());
+            IntBitmap mpa = union(byMpa, filter.getMpa());
+            IntBitmap years = years(filter.getYearFrom(), filter.getYearTo());
+            IntBitmap matched = intersect(intersect(genres, mpa), years);
+            return new FilmFacets((matched == null ? all : matched).cardinality(),
+                    counts(byGenre, intersect(mpa, years)),
+                    counts(byMpa, intersect(genres, years)),
+                    counts(byDecade, intersect(genres, mpa)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int decade(int year) {
+        return Math.floorDiv(year, DECADE) * DECADE;
+    }
+
+    private static void unset(Map<Integer, IntBitmap> bitmaps, int key, int filmId) {
+        IntBitmap bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.remove(filmId);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    // null — условия нет; возвращённые карты индекса только читаются
+    private static IntBitmap union(Map<Integer, IntBitmap> bitmaps, List<Integer> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return null;
+        }
+        IntBitmap result = new IntBitmap();
+        for (int key : keys) {
+            IntBitmap bitmap = bitmaps.get(key);
+            if (bitmap != null) {
+                result = keys.size() == 1 ? bitmap : IntBitmap.or(result, bitmap);
+            }
+        }
+        return result;
+    }
+
+    private static IntBitmap intersect(IntBitmap first, IntBitmap second) {
+        if (first == null || second == null) {
+            return first == null ? second : first;
+        }
+        return IntBitmap.and(first, second);
+    }
+
+    private IntBitmap years(Integer from, Integer to) {
+        if (from == null && to == null) {
+            return null;
+        }
+        int low = from == null ? Integer.MIN_VALUE : from;
+        int high = to == null ? Integer.MAX_VALUE : to;
+        IntBitmap result = new IntBitmap();
+        for (Map.Entry<Integer, IntBitmap> decade : byDecade.entrySet()) {
+            int first = decade.getKey();
+            int last = first + DECADE - 1;
+            if (first >= low && last <= high) {
+                result = IntBitmap.or(result, decade.getValue());
+            } else if (last >= low && first <= high) {
+                for (int year = Math.max(first, low); year <= Math.min(last, high); year++) {
+                    IntBitmap bitmap = byYear.get(year);
+                    if (bitmap != null) {
+                        result = IntBitmap.or(result, bitmap);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static Map<Integer, Integer> counts(Map<Integer, IntBitmap> bitmaps, IntBitmap base) {
+        Map<Integer, Integer> counts = new TreeMap<>();
+        bitmaps.forEach((key, bitmap) -> {
+            int count = base == null ? bitmap.cardinality() : IntBitmap.andCardinality(bitmap, base);
+            if (count > 0) {
+                counts.put(key, count);
+            }
+        });
+        return counts;
+    }
+}
@@ -0,0 +1,84 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.IntPredicate;
+
+/**
+ * Рейтинг фильмов по количеству лайков.
+ * Ключ в упорядоченном множестве кодирует пару (лайки по убыванию, id по возрастанию),
+ * поэтому первые count фильмов читаются за O(count) без сортировки.
+ * Класс не потокобезопасный, синхронизацию обеспечивает владелец.
+ */
+public class FilmRanking {
+
+    private final Map<Integer, Integer> likes = new HashMap<>();
+    private final NavigableSet<Long> order = new TreeSet<>();
+
+    public void addFilm(int filmId, int likesCount) {
+        Integer previous = likes.put(filmId, likesCount);
+        if (previous != null) {
+            order.remove(key(filmId, previous));
+        }
+        order.add(key(filmId, likesCount));
+    }
+
+    public void removeFilm(int filmId) {
+        Integer previous = likes.remove(filmId);
+        if (previous != null) {
+            order.remove(key(filmId, previous));
+        }
+    }
+
+    public void changeLikes(int filmId, int delta) {
+        int current = likes.getOrDefault(filmId, 0);
+        addFilm(filmId, Math.max(0, current + delta));
+    }
+
+    public int getLikes(int filmId) {
+        return likes.getOrDefault(filmId, 0);
+    }
+
+    public boolean contains(int filmId) {
+        return likes.containsKey(filmId);
+    }
+
+    public int size() {
+        return likes.size();
+    }
+
+    public List<Integer> getTop(int count) {
+        return getTop(count, filmId -> true);
+    }
+
+    // Первые count фильмов, прошедших фильтр; обход идёт по рейтингу, пока их не наберётся нужное число
+    public List<Integer> getTop(int count, IntPredicate filter) {
+        List<Integer> result = new ArrayList<>(Math.max(0, Math.min(count, likes.size())));
+        Iterator<Long> iterator = order.iterator();
+        while (result.size() < count && iterator.hasNext()) {
+            int filmId = (int) (iterator.next() & 0xFFFFFFFFL);
+            if (filter.test(filmId)) {
+                result.add(filmId);
+            }
+        }
+        return result;
+    }
+
+    public Map<Integer, Integer> getLikes() {
+        return new HashMap<>(likes);
+    }
+
+    public void clear() {
+        likes.clear();
+        order.clear();
+    }
+
+    private static long key(int filmId, int likesCount) {
+        return ((long) (Integer.MAX_VALUE - likesCount) << 32) | (filmId & 0xFFFFFFFFL);
+    }
+}
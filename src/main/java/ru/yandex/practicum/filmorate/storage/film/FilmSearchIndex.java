@@ -0,0 +1,257 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.SortedInts;
+import ru.yandex.practicum.filmorate.storage.StripedIntMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс по названию и описанию фильмов.
+ * Для каждого термина — отсортированные id фильмов и вес вхождения: слово в названии
+ * весит как NAME_WEIGHT слов в описании. Запрос ищет фильмы со всеми терминами сразу,
+ * начиная пересечение с самого короткого списка, поэтому время зависит от редких слов
+ * запроса, а не от размера каталога.
+ */
+@Component
+public class FilmSearchIndex {
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int MIN_STEM_LENGTH = 3;
+    private static final Locale RUSSIAN = Locale.forLanguageTag("ru");
+
+    // Окончания для лёгкого стемминга русских слов, сначала длинные
+    private static final String[] ENDINGS = {
+            "иями", "ями", "ами", "ого", "его", "ому", "ему", "ыми", "ими", "ией",
+            "ий", "ый", "ой", "ая", "яя", "ое", "ее", "ые", "ие", "ую", "юю", "ым", "им", "ом", "ем",
+            "ах", "ях", "ов", "ев", "ей", "ам", "ям", "ия", "ье", "ья",
+            "а", "я", "ы", "и", "о", "е", "у", "ю", "ь"
+    };
+
+    private final Map<String, Postings> terms = new HashMap<>();
+    // Термины каждого фильма, чтобы при обновлении убрать старые вхождения
+    private final StripedIntMap<String[]> filmTerms = new StripedIntMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void addFilm(int filmId, String name, String description) {
+        Map<String, Integer> weights = new HashMap<>();
+        tokenize(name).forEach(term -> weights.merge(term, NAME_WEIGHT, Integer::sum));
+        tokenize(description).forEach(term -> weights.merge(term, 1, Integer::sum));
+        lock.writeLock().lock();
+        try {
+            removeFilm(filmId);
+            weights.forEach((term, weight) -> terms.computeIfAbsent(term, t -> new Postings()).put(filmId, weight));
+            filmTerms.put(filmId, weights.keySet().toArray(String[]::new));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            terms.clear();
+            filmTerms.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Id фильмов по убыванию релевантности, при равенстве — по возрастанию id
+    public int[] search(String query, int offset, int limit) {
+        Set<String> queryTerms = new LinkedHashSet<>(tokenize(query));
+        if (queryTerms.isEmpty()) {
+            return SortedInts.EMPTY;
+        }
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>(queryTerms.size());
+            for (String term : queryTerms) {
+                Postings postings = terms.get(term);
+                if (postings == null) {
+                    return SortedInts.EMPTY;
+                }
+                lists.add(postings);
+            }
+            lists.sort(Comparator.comparingInt(postings -> postings.size));
+            return rank(lists, filmTerms.size(), offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Нижний регистр, ё → е, разбиение по всему, что не буква и не цифра, затем лёгкий стемминг
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        String normalized = text.toLowerCase(RUSSIAN).replace('ё', 'е');
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean letter = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                tokens.add(stem(normalized.substring(start, i)));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static String stem(String token) {
+        if (!isCyrillic(token)) {
+            return token;
+        }
+        for (String ending : ENDINGS) {
+            if (token.endsWith(ending) && token.length() - ending.length() >= MIN_STEM_LENGTH) {
+                return token.substring(0, token.length() - ending.length());
+            }
+        }
+        return token;
+    }
+
+    private static boolean isCyrillic(String token) {
+        return Character.UnicodeScript.of(token.codePointAt(token.length() - 1)) == Character.UnicodeScript.CYRILLIC;
+    }
+
+    private void removeFilm(int filmId) {
+        String[] previous = filmTerms.remove(filmId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous) {
+            Postings postings = terms.get(term);
+            postings.remove(filmId);
+            if (postings.size == 0) {
+                terms.remove(term);
+            }
+        }
+    }
+
+    // Пересечение с самого короткого списка, остальные проверяются двоичным поиском.
+    // Совпадения проходят через кучу на offset + limit лучших, весь список не сортируется
+    private static int[] rank(List<Postings> lists, int films, int offset, int limit) {
+        Postings shortest = lists.get(0);
+        double[] idf = new double[lists.size()];
+        for (int i = 0; i < idf.length; i++) {
+            idf[i] = Math.log(1 + (double) films / lists.get(i).size);
+        }
+        long[] heap = new long[(int) Math.min((long) offset + limit, shortest.size)];
+        int heapSize = 0;
+        int[] from = new int[lists.size()];
+        for (int position = 0; position < shortest.size; position++) {
+            int filmId = shortest.films[position];
+            double score = shortest.weights[position] * idf[0];
+            boolean all = true;
+            for (int i = 1; i < lists.size() && all; i++) {
+                Postings other = lists.get(i);
+                int found = Arrays.binarySearch(other.films, from[i], other.size, filmId);
+                if (found < 0) {
+                    from[i] = -found - 1;
+                    all = false;
+                } else {
+                    from[i] = found + 1;
+                    score += other.weights[found] * idf[i];
+                }
+            }
+            if (!all) {
+                continue;
+            }
+            // Старшие биты — очки, младшие — обратный id: больший ключ — выше в выдаче
+            long key = ((long) (score * 1000) << 32) | (Integer.MAX_VALUE - filmId);
+            if (heapSize < heap.length) {
+                heap[heapSize] = key;
+                siftUp(heap, heapSize++);
+            } else if (heap.length > 0 && key > heap[0]) {
+                heap[0] = key;
+                siftDown(heap, heapSize);
+            }
+        }
+        int[] result = new int[Math.max(0, heapSize - offset)];
+        for (int position = heapSize - 1; position >= 0; position--) {
+            if (position >= offset) {
+                result[position - offset] = Integer.MAX_VALUE - (int) (heap[0] & 0xFFFFFFFFL);
+            }
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize);
+        }
+        return result;
+    }
+
+    // Куча с худшим из отобранных на вершине
+    private static void siftUp(long[] heap, int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (heap[parent] <= heap[position]) {
+                return;
+            }
+            swap(heap, parent, position);
+            position = parent;
+        }
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        int position = 0;
+        while (true) {
+            int worst = position;
+            for (int child = 2 * position + 1; child <= 2 * position + 2 && child < size; child++) {
+                if (heap[child] < heap[worst]) {
+                    worst = child;
+                }
+            }
+            if (worst == position) {
+                return;
+            }
+            swap(heap, worst, position);
+            position = worst;
+        }
+    }
+
+    private static void swap(long[] heap, int a, int b) {
+        long tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
+    }
+
+    // Растущие массивы id и весов; id фильмов выдаются по возрастанию, поэтому вставка обычно в конец
+    private static final class Postings {
+
+        private int[] films = new int[4];
+        private int[] weights = new int[4];
+        private int size;
+
+        void put(int filmId, int weight) {
+            int position = -Arrays.binarySearch(films, 0, size, filmId) - 1;
+            if (size == films.length) {
+                films = Arrays.copyOf(films, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            System.arraycopy(films, position, films, position + 1, size - position);
+            System.arraycopy(weights, position, weights, position + 1, size - position);
+            films[position] = filmId;
+            weights[position] = weight;
+            size++;
+        }
+
+        void remove(int filmId) {
+            int position = Arrays.binarySearch(films, 0, size, filmId);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(films, position + 1, films, position, size - position - 1);
+            System.arraycopy(weights, position + 1, weights, position, size - position - 1);
+            size--;
+        }
+    }
+}
@@ -2,20 +2,38 @@ package ru.yandex.practicum.filmorate.storage.film;
 
 import ru.yandex.practicum.filmorate.model.Film;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface FilmStorage {
     Film createFilm(Film film);
 
+    List<Film> createFilms(List<Film> films);
+
     Film updateFilm(Film film);
 
     Film getFilmById(int id);
 
+    // Фильмы в порядке filmIds пачками запросов; несуществующие id пропускаются
+    List<Film> getFilmsByIds(int[] filmIds);
+
+    boolean existsById(int id);
+
+    List<Integer> getMissingIds(Collection<Integer> ids);
+
     List<Film> getAllFilms();
 
+    List<Film> getFilmsPage(int afterId, int limit);
+
+    void exportFilms(Consumer<Film> consumer);
+
     void addLike(int filmId, int userId);
 
     void removeLike(int filmId, int userId);
 
     List<Film> getMostPopularFilms(int count);
+
+    // genreId и year можно не задавать: null снимает соответствующее условие
+    List<Film> getMostPopularFilms(int count, Integer genreId, Integer year);
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.springframework.jdbc.core.ResultSetExtractor;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.RatingMpa;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Собирает фильмы вместе с жанрами из одного запроса films ⋈ film_genres ⋈ genres.
+ * Строки одного фильма должны идти подряд (ORDER BY film_id): фильм готов, как только
+ * встретился следующий id, и кроме текущего фильма ничего не буферизуется.
+ */
+class FilmWithGenresExtractor implements ResultSetExtractor<List<Film>> {
+
+    // Между SELECT и JOIN_GENRES — источник с именем films: сама таблица или подзапрос
+    static final String SELECT = "SELECT films.*, rating_mpa.rating_name, genres.genre_id, genres.genre_name ";
+    static final String JOIN_GENRES = "JOIN rating_mpa ON films.rating_id = rating_mpa.rating_id "
+            + "LEFT JOIN film_genres ON film_genres.film_id = films.film_id "
+            + "LEFT JOIN genres ON genres.genre_id = film_genres.genre_id ";
+    static final String ORDER_BY = "ORDER BY films.film_id, film_genres.genre_id";
+
+    @Override
+    public List<Film> extractData(ResultSet rs) throws SQLException {
+        List<Film> films = new ArrayList<>();
+        forEachFilm(rs, films::add);
+        return films;
+    }
+
+    static void forEachFilm(ResultSet rs, Consumer<Film> consumer) throws SQLException {
+        Film current = null;
+        while (rs.next()) {
+            int filmId = rs.getInt("film_id");
+            if (current == null || current.getId() != filmId) {
+                if (current != null) {
+                    consumer.accept(current);
+                }
+                current = mapFilm(rs, filmId);
+            }
+            int genreId = rs.getInt("genre_id");
+            if (!rs.wasNull()) {
+                current.addGenre(new Genre(genreId, rs.getString("genre_name")));
+            }
+        }
+        if (current != null) {
+            consumer.accept(current);
+        }
+    }
+
+    private static Film mapFilm(ResultSet rs, int filmId) throws SQLException {
+        Date releaseDate = rs.getDate("release_date");
+        return Film.builder()
+                .id(filmId)
+                .name(rs.getString("film_name"))
+                .description(rs.getString("description"))
+                .duration(rs.getLong("duration"))
+                .releaseDate(releaseDate != null ? releaseDate.toLocalDate() : null)
+                .mpa(new RatingMpa(rs.getInt("rating_id"), rs.getString("rating_name")))
+                .genres(new LinkedHashSet<>())
+                .build();
+    }
+}
@@ -0,0 +1,224 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.SortedInts;
+import ru.yandex.practicum.filmorate.storage.StripedIntMap;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Фильмы и лайки в памяти, профиль memory.
+ * Фильмы лежат в отображении по int-id, лайки фильма — отсортированный массив id пользователей.
+ * Наружу всегда отдаются копии, чтобы вызывающий не мог изменить хранимый фильм.
+ */
+@Repository
+@Profile("memory")
+public class InMemoryFilmStorage implements FilmStorage {
+
+    private final StripedIntMap<Film> films = new StripedIntMap<>();
+    private final StripedIntMap<int[]> likes = new StripedIntMap<>();
+    private final AtomicInteger lastId = new AtomicInteger();
+    private final PopularFilmsIndex popularFilmsIndex;
+    private final CoLikeIndex coLikeIndex;
+    private final FilmSearchIndex searchIndex;
+    private final FilmFacetIndex facetIndex;
+
+    public InMemoryFilmStorage(PopularFilmsIndex popularFilmsIndex, CoLikeIndex coLikeIndex,
+                               FilmSearchIndex searchIndex, FilmFacetIndex facetIndex) {
+        this.popularFilmsIndex = popularFilmsIndex;
+        this.coLikeIndex = coLikeIndex;
+        this.searchIndex = searchIndex;
+        this.facetIndex = facetIndex;
+    }
+
+    @Override
+    public Film createFilm(Film film) {
+        film.setId(lastId.incrementAndGet());
+        film.setGenres(sortedGenres(film.getGenres()));
+        films.put(film.getId(), copyOf(film));
+        popularFilmsIndex.addFilm(film);
+        searchIndex.addFilm(film.getId(), film.getName(), film.getDescription());
+        facetIndex.addFilm(film);
+        return film;
+    }
+
+    @Override
+    public List<Film> createFilms(List<Film> imported) {
+        imported.forEach(this::createFilm);
+        return imported;
+    }
+
+    @Override
+    public Film updateFilm(Film film) {
+        film.setGenres(sortedGenres(film.getGenres()));
+        Film stored = copyOf(film);
+        films.compute(film.getId(), current -> {
+            if (current == null) {
+                throw new NotFoundException("Movie with ID = " + film.getId() + " not found");
+            }
+            return stored;
+        });
+        searchIndex.addFilm(film.getId(), film.getName(), film.getDescription());
+        facetIndex.addFilm(film);
+        popularFilmsIndex.addFilm(film);
+        return film;
+    }
+
+    @Override
+    public Film getFilmById(int filmId) {
+        Film film = films.get(filmId);
+        if (film == null) {
+            throw new NotFoundException("Movie with ID = " + filmId + " not found");
+        }
+        return copyOf(film);
+    }
+
+    @Override
+    public List<Film> getFilmsByIds(int[] filmIds) {
+        List<Film> found = new ArrayList<>(filmIds.length);
+        for (int filmId : filmIds) {
+            Film film = films.get(filmId);
+            if (film != null) {
+                found.add(copyOf(film));
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public boolean existsById(int filmId) {
+        return films.containsKey(filmId);
+    }
+
+    @Override
+    public List<Integer> getMissingIds(Collection<Integer> filmIds) {
+        List<Integer> missing = new ArrayList<>();
+        for (Integer filmId : filmIds) {
+            if (filmId == null || !films.containsKey(filmId)) {
+                missing.add(filmId);
+            }
+        }
+        return missing;
+    }
+
+    @Override
+    public List<Film> getAllFilms() {
+        return getFilmsPage(0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Film> getFilmsPage(int afterId, int limit) {
+        // Id выдаются подряд, поэтому страница — это просто проход по диапазону id
+        List<Film> page = new ArrayList<>(Math.min(limit, films.size()));
+        int last = lastId.get();
+        for (int id = Math.max(afterId, 0) + 1; id <= last && page.size() < limit; id++) {
+            Film film = films.get(id);
+            if (film != null) {
+                page.add(copyOf(film));
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public void exportFilms(Consumer<Film> consumer) {
+        int last = lastId.get();
+        for (int id = 1; id <= last; id++) {
+            Film film = films.get(id);
+            if (film != null) {
+                consumer.accept(copyOf(film));
+            }
+        }
+    }
+
+    @Override
+    public void addLike(int filmId, int userId) {
+        boolean[] added = new boolean[1];
+        likes.compute(filmId, current -> {
+            int[] users = current == null ? SortedInts.EMPTY : current;
+            int[] updated = SortedInts.insert(users, userId);
+            added[0] = updated != users;
+            return updated;
+        });
+        if (added[0]) {
+            popularFilmsIndex.addLike(filmId);
+            coLikeIndex.addLike(filmId, userId);
+        }
+    }
+
+    @Override
+    public void removeLike(int filmId, int userId) {
+        boolean[] removed = new boolean[1];
+        likes.compute(filmId, current -> {
+            if (current == null) {
+                return null;
+            }
+            int[] updated = SortedInts.remove(current, userId);
+            removed[0] = updated != current;
+            return updated.length == 0 ? null : updated;
+        });
+        if (removed[0]) {
+            popularFilmsIndex.removeLike(filmId);
+            coLikeIndex.removeLike(filmId, userId);
+        }
+    }
+
+    @Override
+    public List<Film> getMostPopularFilms(int count) {
+        return getMostPopularFilms(count, null, null);
+    }
+
+    @Override
+    public List<Film> getMostPopularFilms(int count, Integer genreId, Integer year) {
+        return getFilmsByIds(popularFilmsIndex.getTop(count, genreId, year).stream()
+                .mapToInt(Integer::intValue)
+                .toArray());
+    }
+
+    // Число лайков для каждого фильма, включая фильмы без лайков
+    public Map<Integer, Integer> getLikesCount() {
+        Map<Integer, Integer> likesCount = new HashMap<>();
+        films.forEach((film, filmId) -> {
+            int[] users = likes.get(filmId);
+            likesCount.put(filmId, users == null ? 0 : users.length);
+        });
+        return likesCount;
+    }
+
+    public void removeAllGenres(int filmId) {
+        films.compute(filmId, current -> {
+            if (current == null) {
+                return null;
+            }
+            Film updated = copyOf(current);
+            updated.removeAllGenres();
+            return updated;
+        });
+    }
+
+    private static Set<Genre> sortedGenres(Set<Genre> genres) {
+        Set<Genre> sorted = new TreeSet<>(Comparator.comparingInt(Genre::getId));
+        if (genres != null) {
+            sorted.addAll(genres);
+        }
+        return new LinkedHashSet<>(sorted);
+    }
+
+    private static Film copyOf(Film film) {
+        return Film.builder()
+                .id(film.getId())
+                .name(film.getName())
+                .description(film.getDescription())
+                .releaseDate(film.getReleaseDate())
+                .duration(film.getDuration())
+                .mpa(film.getMpa())
+                .genres(new LinkedHashSet<>(film.getGenres()))
+                .build();
+    }
+}
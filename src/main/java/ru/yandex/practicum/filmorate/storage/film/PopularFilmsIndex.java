@@ -0,0 +1,141 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.SortedInts;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Счётчики лайков по фильмам, поддерживаемые в памяти.
+ * Кроме общего рейтинга ведутся отдельные рейтинги по каждому жанру и году выхода,
+ * поэтому топ внутри жанра или года читается так же, как общий.
+ * Обновляется хранилищами при записи лайков, перестраивается из БД при старте.
+ */
+@Slf4j
+@Component
+public class PopularFilmsIndex {
+
+    private record Scope(int[] genreIds, int year) {
+
+        boolean hasGenre(int genreId) {
+            return SortedInts.contains(genreIds, genreId);
+        }
+    }
+
+    private final FilmRanking ranking = new FilmRanking();
+    private final Map<Integer, FilmRanking> byGenre = new HashMap<>();
+    private final Map<Integer, FilmRanking> byYear = new HashMap<>();
+    // Жанры и год каждого фильма; задаются хранилищем фильмов и переживают rebuild
+    private final Map<Integer, Scope> scopes = new HashMap<>();
+
+    public void addFilm(Film film) {
+        int[] genreIds = film.getGenres() == null ? SortedInts.EMPTY
+                : film.getGenres().stream().mapToInt(Genre::getId).sorted().distinct().toArray();
+        addFilm(film.getId(), genreIds, film.getReleaseDate().getYear());
+    }
+
+    // Добавляет фильм или переносит его в рейтинги новых жанров и года, сохраняя лайки
+    public synchronized void addFilm(int filmId, int[] genreIds, int year) {
+        if (!ranking.contains(filmId)) {
+            ranking.addFilm(filmId, 0);
+        }
+        Scope previous = scopes.put(filmId, new Scope(genreIds, year));
+        if (previous != null) {
+            for (int genreId : previous.genreIds()) {
+                removeScoped(byGenre, genreId, filmId);
+            }
+            removeScoped(byYear, previous.year(), filmId);
+        }
+        int likes = ranking.getLikes(filmId);
+        for (int genreId : genreIds) {
+            byGenre.computeIfAbsent(genreId, key -> new FilmRanking()).addFilm(filmId, likes);
+        }
+        byYear.computeIfAbsent(year, key -> new FilmRanking()).addFilm(filmId, likes);
+    }
+
+    public synchronized void addLike(int filmId) {
+        ranking.changeLikes(filmId, 1);
+        syncScopes(filmId);
+    }
+
+    public synchronized void removeLike(int filmId) {
+        ranking.changeLikes(filmId, -1);
+        syncScopes(filmId);
+    }
+
+    public synchronized int getLikes(int filmId) {
+        return ranking.getLikes(filmId);
+    }
+
+    public synchronized List<Integer> getTop(int count) {
+        return ranking.getTop(count);
+    }
+
+    // genreId и year — необязательные условия; null означает «без ограничения»
+    public synchronized List<Integer> getTop(int count, Integer genreId, Integer year) {
+        FilmRanking genreRanking = genreId == null ? null : byGenre.get(genreId);
+        FilmRanking yearRanking = year == null ? null : byYear.get(year);
+        if ((genreId != null && genreRanking == null) || (year != null && yearRanking == null)) {
+            return List.of();
+        }
+        if (genreRanking == null) {
+            return yearRanking == null ? ranking.getTop(count) : yearRanking.getTop(count);
+        }
+        if (yearRanking == null) {
+            return genreRanking.getTop(count);
+        }
+        // Оба условия: идём по меньшему рейтингу и проверяем второе условие по жанрам и году фильма
+        if (yearRanking.size() <= genreRanking.size()) {
+            return yearRanking.getTop(count, filmId -> scopes.get(filmId).hasGenre(genreId));
+        }
+        return genreRanking.getTop(count, filmId -> scopes.get(filmId).year() == year);
+    }
+
+    public synchronized Map<Integer, Integer> getLikes() {
+        return ranking.getLikes();
+    }
+
+    public synchronized void rebuild(Map<Integer, Integer> likesByFilm) {
+        ranking.clear();
+        likesByFilm.forEach(ranking::addFilm);
+        byGenre.clear();
+        byYear.clear();
+        scopes.forEach((filmId, scope) -> {
+            int likes = ranking.getLikes(filmId);
+            for (int genreId : scope.genreIds()) {
+                byGenre.computeIfAbsent(genreId, key -> new FilmRanking()).addFilm(filmId, likes);
+            }
+            byYear.computeIfAbsent(scope.year(), key -> new FilmRanking()).addFilm(filmId, likes);
+        });
+        log.info("Индекс популярных фильмов перестроен: {} фильмов, {} жанров, {} лет",
+                likesByFilm.size(), byGenre.size(), byYear.size());
+    }
+
+    // Рейтинги жанров и года повторяют счётчик общего рейтинга
+    private void syncScopes(int filmId) {
+        Scope scope = scopes.get(filmId);
+        if (scope == null) {
+            return;
+        }
+        int likes = ranking.getLikes(filmId);
+        for (int genreId : scope.genreIds()) {
+            byGenre.get(genreId).addFilm(filmId, likes);
+        }
+        byYear.get(scope.year()).addFilm(filmId, likes);
+    }
+
+    private static void removeScoped(Map<Integer, FilmRanking> rankings, int key, int filmId) {
+        FilmRanking scoped = rankings.get(key);
+        if (scoped != null) {
+            scoped.removeFilm(filmId);
+            if (scoped.size() == 0) {
+                rankings.remove(key);
+            }
+        }
+    }
+}
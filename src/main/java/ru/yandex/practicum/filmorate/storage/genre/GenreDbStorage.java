@@ -1,15 +1,17 @@
 package ru.yandex.practicum.filmorate.storage.genre;
 
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.support.rowset.SqlRowSet;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Genre;
 
-import java.util.ArrayList;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.List;
 
 @Repository
+@Profile("!memory")
 public class GenreDbStorage implements GenreStorage {
 
     private final JdbcTemplate jdbcTemplate;
@@ -27,22 +29,17 @@ public class GenreDbStorage implements GenreStorage {
     @Override
     public Genre getGenreById(int genreId) {
         String sqlQuery = "SELECT * FROM genres WHERE genre_id = ?";
-        SqlRowSet srs = jdbcTemplate.queryForRowSet(sqlQuery, genreId);
-        if (srs.next()) {
-            return new Genre(genreId, srs.getString("genre_name"));
+        List<Genre> genres = jdbcTemplate.query(sqlQuery, GenreDbStorage::mapGenre, genreId);
+        if (genres.isEmpty()) {
+            throw new NotFoundException("Жанр не найден: id = " + genreId);
         }
-        throw new NotFoundException("Жанр не найден: id = " + genreId);
+        return genres.get(0);
     }
 
     @Override
     public List<Genre> getAllGenres() {
-        List<Genre> genres = new ArrayList<>();
         String sqlQuery = "SELECT * FROM genres ";
-        SqlRowSet srs = jdbcTemplate.queryForRowSet(sqlQuery);
-        while (srs.next()) {
-            genres.add(new Genre(srs.getInt("genre_id"), srs.getString("genre_name")));
-        }
-        return genres;
+        return jdbcTemplate.query(sqlQuery, GenreDbStorage::mapGenre);
     }
 
     public boolean existsById(int id) {
@@ -50,4 +47,8 @@ public class GenreDbStorage implements GenreStorage {
                 "SELECT COUNT(*) FROM genres WHERE genre_id = ?", Integer.class, id);
         return count != null && count > 0;
     }
+
+    private static Genre mapGenre(ResultSet rs, int rowNum) throws SQLException {
+        return new Genre(rs.getInt("genre_id"), rs.getString("genre_name"));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate.storage.genre;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+
+import java.util.List;
+
+/**
+ * Справочник жанров для профиля memory.
+ * Содержимое совпадает с data.sql: без БД загрузить справочник неоткуда.
+ */
+@Repository
+@Profile("memory")
+public class InMemoryGenreStorage implements GenreStorage {
+
+    private static final List<Genre> GENRES = List.of(
+            new Genre(1, "Комедия"),
+            new Genre(2, "Драма"),
+            new Genre(3, "Мультфильм"),
+            new Genre(4, "Триллер"),
+            new Genre(5, "Документальный"),
+            new Genre(6, "Боевик"));
+
+    private final InMemoryFilmStorage filmStorage;
+
+    public InMemoryGenreStorage(InMemoryFilmStorage filmStorage) {
+        this.filmStorage = filmStorage;
+    }
+
+    @Override
+    public void deleteAllGenresById(int filmId) {
+        filmStorage.removeAllGenres(filmId);
+    }
+
+    @Override
+    public Genre getGenreById(int genreId) {
+        return GENRES.stream()
+                .filter(genre -> genre.getId() == genreId)
+                .findFirst()
+                .orElseThrow(() -> new NotFoundException("Жанр не найден: id = " + genreId));
+    }
+
+    @Override
+    public List<Genre> getAllGenres() {
+        return GENRES;
+    }
+}
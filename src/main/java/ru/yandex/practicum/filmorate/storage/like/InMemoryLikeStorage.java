@@ -0,0 +1,41 @@
+package ru.yandex.practicum.filmorate.storage.like;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+
+import java.util.List;
+import java.util.Map;
+
+// Лайки в памяти хранятся рядом с фильмами, здесь только реализация LikeStorage поверх них
+@Component
+@Profile("memory")
+public class InMemoryLikeStorage implements LikeStorage {
+
+    private final InMemoryFilmStorage filmStorage;
+
+    public InMemoryLikeStorage(InMemoryFilmStorage filmStorage) {
+        this.filmStorage = filmStorage;
+    }
+
+    @Override
+    public void addLike(int filmId, int userId) {
+        filmStorage.addLike(filmId, userId);
+    }
+
+    @Override
+    public void deleteLike(int filmId, int userId) {
+        filmStorage.removeLike(filmId, userId);
+    }
+
+    @Override
+    public List<Film> getPopular(Integer count) {
+        return filmStorage.getMostPopularFilms(count);
+    }
+
+    @Override
+    public Map<Integer, Integer> getLikesCount() {
+        return filmStorage.getLikesCount();
+    }
+}
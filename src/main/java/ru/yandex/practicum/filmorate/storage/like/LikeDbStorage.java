@@ -1,38 +1,110 @@
 package ru.yandex.practicum.filmorate.storage.like;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.CoLikeIndex;
 import ru.yandex.practicum.filmorate.storage.film.FilmRowMapper;
+import ru.yandex.practicum.filmorate.storage.film.PopularFilmsIndex;
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+@Slf4j
 @Component
+@Profile("!memory")
 @RequiredArgsConstructor
 public class LikeDbStorage implements LikeStorage {
     private final JdbcTemplate jdbcTemplate;
+    private final PopularFilmsIndex popularFilmsIndex;
+    private final CoLikeIndex coLikeIndex;
+    private final LikeWriteBehindQueue writeBehindQueue;
 
     private static final String ADD_LIKE_QUERY = "INSERT INTO LIKES VALUES (?, ?)";
     private static final String DELETE_LIKE_QUERY = "DELETE FROM LIKES WHERE film_id = ? and user_id = ?";
     private static final String GET_MOST_POPULAR_LIKE_QUERY = "select f.*, mr.name mpa_name from films f " +
             "left join likes fl on f.id = fl.film_id join mpa mr on f.mpa_id = mr.id " +
             "group by f.name, f.id, mr.name order by count(fl.film_id) desc limit ?";
+    private static final String GET_LIKES_COUNT_QUERY = "SELECT films.film_id, COUNT(likes.user_id) AS likes_count "
+            + "FROM films LEFT JOIN likes ON likes.film_id = films.film_id "
+            + "GROUP BY films.film_id";
 
+    @PostConstruct
+    public void rebuildPopularFilmsIndex() {
+        popularFilmsIndex.rebuild(getLikesCount());
+    }
 
+    @PostConstruct
+    public void rebuildCoLikeIndex() {
+        // Столбцы таблицы likes в двух массивах int, без объекта на строку
+        int[][] columns = {new int[1024], new int[1024]};
+        int[] size = new int[1];
+        jdbcTemplate.query("SELECT film_id, user_id FROM likes", rs -> {
+            if (size[0] == columns[0].length) {
+                columns[0] = Arrays.copyOf(columns[0], size[0] * 2);
+                columns[1] = Arrays.copyOf(columns[1], size[0] * 2);
+            }
+            columns[0][size[0]] = rs.getInt(1);
+            columns[1][size[0]++] = rs.getInt(2);
+        });
+        coLikeIndex.rebuild(Arrays.copyOf(columns[0], size[0]), Arrays.copyOf(columns[1], size[0]));
+    }
 
     @Override
     public void addLike(int filmId, int userId) {
-        jdbcTemplate.update(ADD_LIKE_QUERY, filmId, userId);
+        if (writeBehindQueue.isEnabled()) {
+            writeBehindQueue.addLike(filmId, userId);
+            return;
+        }
+        if (jdbcTemplate.update(ADD_LIKE_QUERY, filmId, userId) > 0) {
+            popularFilmsIndex.addLike(filmId);
+            coLikeIndex.addLike(filmId, userId);
+        }
     }
 
     @Override
     public void deleteLike(int filmId, int userId) {
-        jdbcTemplate.update(DELETE_LIKE_QUERY, filmId, userId);
+        if (writeBehindQueue.isEnabled()) {
+            writeBehindQueue.deleteLike(filmId, userId);
+            return;
+        }
+        if (jdbcTemplate.update(DELETE_LIKE_QUERY, filmId, userId) > 0) {
+            popularFilmsIndex.removeLike(filmId);
+            coLikeIndex.removeLike(filmId, userId);
+        }
     }
 
     @Override
     public List<Film> getPopular(Integer count) {
         return jdbcTemplate.query(GET_MOST_POPULAR_LIKE_QUERY, new FilmRowMapper(), count);
     }
-}
\ No newline at end of file
+
+    @Override
+    public Map<Integer, Integer> getLikesCount() {
+        Map<Integer, Integer> likesCount = new HashMap<>();
+        jdbcTemplate.query(GET_LIKES_COUNT_QUERY, rs -> {
+            likesCount.put(rs.getInt("film_id"), rs.getInt("likes_count"));
+        });
+        return likesCount;
+    }
+
+    // Сверяет счётчики в памяти с таблицей likes и перестраивает индекс при расхождении
+    public boolean checkPopularFilmsIndex() {
+        writeBehindQueue.flush();
+        Map<Integer, Integer> expected = getLikesCount();
+        Map<Integer, Integer> actual = popularFilmsIndex.getLikes();
+        if (expected.equals(actual)) {
+            return true;
+        }
+        log.warn("Индекс популярных фильмов расходится с таблицей likes: {} фильмов в БД, {} в индексе",
+                expected.size(), actual.size());
+        popularFilmsIndex.rebuild(expected);
+        return false;
+    }
+}
@@ -2,6 +2,7 @@ package ru.yandex.practicum.filmorate.storage.like;
 
 import ru.yandex.practicum.filmorate.model.Film;
 import java.util.List;
+import java.util.Map;
 
 public interface LikeStorage {
     void addLike(int filmId, int userId);
@@ -9,4 +10,6 @@ public interface LikeStorage {
     void deleteLike(int filmId, int userId);
 
     List<Film> getPopular(Integer count);
-}
\ No newline at end of file
+
+    Map<Integer, Integer> getLikesCount();
+}
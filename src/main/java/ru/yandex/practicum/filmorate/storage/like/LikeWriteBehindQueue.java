@@ -0,0 +1,256 @@
+package ru.yandex.practicum.filmorate.storage.like;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.film.CoLikeIndex;
+import ru.yandex.practicum.filmorate.storage.film.PopularFilmsIndex;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Отложенная запись лайков.
+ * Операции копятся в очереди, повторные операции над одной парой (film_id, user_id) схлопываются
+ * в последнюю, а очередь сбрасывается в таблицу likes пачками по таймеру или при заполнении.
+ * Когда очередь полна, вызывающий поток сам выполняет сброс, тем самым ограничивая входящий поток.
+ * Один сброс записывает не больше операций, чем было в очереди на его начало (и не больше ёмкости),
+ * поэтому при непрерывном потоке лайков вызывающий поток не застревает в сбросе.
+ */
+@Slf4j
+@Component
+@Profile("!memory")
+public class LikeWriteBehindQueue {
+
+    private static final String INSERT_LIKE_QUERY = "INSERT INTO likes (film_id, user_id) "
+            + "SELECT ?, ? WHERE NOT EXISTS (SELECT 1 FROM likes WHERE film_id = ? AND user_id = ?)";
+    private static final String DELETE_LIKE_QUERY = "DELETE FROM likes WHERE film_id = ? AND user_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PopularFilmsIndex popularFilmsIndex;
+    private final CoLikeIndex coLikeIndex;
+    private final boolean enabled;
+    private final int capacity;
+    private final int batchSize;
+    private final Duration flushInterval;
+
+    // true — поставить лайк, false — снять
+    private final Map<Long, Boolean> pending = new LinkedHashMap<>();
+    // Не synchronized: сброс ходит в БД, а монитор закрепил бы виртуальный поток за платформенным
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private ScheduledExecutorService scheduler;
+
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushedOperations = new AtomicLong();
+    private final AtomicLong flushNanos = new AtomicLong();
+    private final AtomicLong lastFlushNanos = new AtomicLong();
+    private final AtomicLong backpressureFlushes = new AtomicLong();
+
+    public LikeWriteBehindQueue(JdbcTemplate jdbcTemplate,
+                                PopularFilmsIndex popularFilmsIndex,
+                                CoLikeIndex coLikeIndex,
+                                @Value("${filmorate.likes.write-behind.enabled:false}") boolean enabled,
+                                @Value("${filmorate.likes.write-behind.capacity:10000}") int capacity,
+                                @Value("${filmorate.likes.write-behind.batch-size:500}") int batchSize,
+                                @Value("${filmorate.likes.write-behind.flush-interval:200ms}") Duration flushInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.popularFilmsIndex = popularFilmsIndex;
+        this.coLikeIndex = coLikeIndex;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "like-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = flushInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Отложенная запись лайков включена: ёмкость {}, пачка {}, интервал {}",
+                capacity, batchSize, flushInterval);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        while (getDepth() > 0) {
+            flush();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void addLike(int filmId, int userId) {
+        enqueue(filmId, userId, true);
+    }
+
+    public void deleteLike(int filmId, int userId) {
+        enqueue(filmId, userId, false);
+    }
+
+    public void flush() {
+        flushLock.lock();
+        try {
+            int remaining;
+            synchronized (pending) {
+                remaining = Math.min(pending.size(), capacity);
+            }
+            while (remaining > 0) {
+                List<Map.Entry<Long, Boolean>> batch = drain(Math.min(batchSize, remaining));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                remaining -= batch.size();
+                long started = System.nanoTime();
+                write(batch);
+                long elapsed = System.nanoTime() - started;
+                flushes.incrementAndGet();
+                flushedOperations.addAndGet(batch.size());
+                flushNanos.addAndGet(elapsed);
+                lastFlushNanos.set(elapsed);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public int getDepth() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    public long getFlushes() {
+        return flushes.get();
+    }
+
+    public long getFlushedOperations() {
+        return flushedOperations.get();
+    }
+
+    public long getFlushNanos() {
+        return flushNanos.get();
+    }
+
+    public long getLastFlushNanos() {
+        return lastFlushNanos.get();
+    }
+
+    public long getBackpressureFlushes() {
+        return backpressureFlushes.get();
+    }
+
+    private void enqueue(int filmId, int userId, boolean like) {
+        long key = ((long) filmId << 32) | (userId & 0xFFFFFFFFL);
+        boolean full;
+        synchronized (pending) {
+            // Последняя операция над парой заменяет предыдущие и встаёт в конец очереди
+            pending.remove(key);
+            pending.put(key, like);
+            full = pending.size() >= capacity;
+        }
+        if (full) {
+            backpressureFlushes.incrementAndGet();
+            flush();
+        }
+    }
+
+    private List<Map.Entry<Long, Boolean>> drain(int limit) {
+        synchronized (pending) {
+            List<Map.Entry<Long, Boolean>> batch = new ArrayList<>(Math.min(limit, pending.size()));
+            Iterator<Map.Entry<Long, Boolean>> iterator = pending.entrySet().iterator();
+            while (batch.size() < limit && iterator.hasNext()) {
+                Map.Entry<Long, Boolean> entry = iterator.next();
+                batch.add(Map.entry(entry.getKey(), entry.getValue()));
+                iterator.remove();
+            }
+            return batch;
+        }
+    }
+
+    private void write(List<Map.Entry<Long, Boolean>> batch) {
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        for (Map.Entry<Long, Boolean> entry : batch) {
+            int filmId = (int) (entry.getKey() >>> 32);
+            int userId = (int) (entry.getKey() & 0xFFFFFFFFL);
+            if (entry.getValue()) {
+                inserts.add(new Object[]{filmId, userId, filmId, userId});
+            } else {
+                deletes.add(new Object[]{filmId, userId});
+            }
+        }
+        // Пары в пачке уникальны, поэтому порядок между вставками и удалениями не важен
+        applyBatch(INSERT_LIKE_QUERY, inserts, true);
+        applyBatch(DELETE_LIKE_QUERY, deletes, false);
+    }
+
+    private void applyBatch(String sqlQuery, List<Object[]> rows, boolean like) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        int[] counts;
+        try {
+            counts = jdbcTemplate.batchUpdate(sqlQuery, rows);
+        } catch (DataAccessException e) {
+            // Ищем сломанную строку, выполняя пачку построчно
+            log.error("Ошибка пакетной записи лайков, повтор по одной строке: {}", e.getMessage());
+            counts = new int[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                try {
+                    counts[i] = jdbcTemplate.update(sqlQuery, rows.get(i));
+                } catch (DataAccessException rowError) {
+                    log.error("Лайк отброшен: фильм {}, пользователь {}: {}",
+                            rows.get(i)[0], rows.get(i)[1], rowError.getMessage());
+                }
+            }
+        }
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                int filmId = (int) rows.get(i)[0];
+                int userId = (int) rows.get(i)[1];
+                if (like) {
+                    popularFilmsIndex.addLike(filmId);
+                    coLikeIndex.addLike(filmId, userId);
+                } else {
+                    popularFilmsIndex.removeLike(filmId);
+                    coLikeIndex.removeLike(filmId, userId);
+                }
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Ошибка сброса очереди лайков", e);
+        }
+    }
+}
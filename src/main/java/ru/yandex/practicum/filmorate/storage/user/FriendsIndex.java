@@ -0,0 +1,277 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.SortedInts;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Списки друзей в памяти: для каждого пользователя отсортированный массив id друзей.
+ * Массивы не изменяются после публикации, запись заменяет массив целиком,
+ * поэтому чтение идёт без блокировок. Рекомендации друзей считаются обходом на два шага:
+ * небольшие окрестности — сортировкой, большие — параллельно по диапазонам id кандидатов.
+ */
+@Slf4j
+@Component
+public class FriendsIndex {
+
+    // Меньше стольких связей на втором шаге сортировка быстрее, чем запуск задач и плотные счётчики
+    private static final int PARALLEL_EDGES = 1 << 15;
+    private static final int PARTITIONS_PER_THREAD = 4;
+    private static final int MIN_RANGE_WIDTH = 1 << 12;
+
+    private final Map<Integer, int[]> friends = new ConcurrentHashMap<>();
+
+    // pairs — пары (user_id, friend_id)
+    public void rebuild(List<int[]> pairs) {
+        int[] userIds = new int[pairs.size()];
+        int[] friendIds = new int[pairs.size()];
+        for (int i = 0; i < pairs.size(); i++) {
+            userIds[i] = pairs.get(i)[0];
+            friendIds[i] = pairs.get(i)[1];
+        }
+        rebuild(userIds, friendIds);
+    }
+
+    // userIds и friendIds — столбцы таблицы friends одинаковой длины
+    public synchronized void rebuild(int[] userIds, int[] friendIds) {
+        int[][] grouped = SortedInts.group(userIds, friendIds);
+        friends.clear();
+        int users = 0;
+        for (int userId = 0; userId < grouped.length; userId++) {
+            if (grouped[userId] != null) {
+                friends.put(userId, grouped[userId]);
+                users++;
+            }
+        }
+        log.info("Индекс друзей перестроен: {} пользователей, {} связей", users, userIds.length);
+    }
+
+    public synchronized void addFriend(int userId, int friendId) {
+        friends.put(userId, SortedInts.insert(getFriends(userId), friendId));
+    }
+
+    public synchronized void removeFriend(int userId, int friendId) {
+        int[] updated = SortedInts.remove(getFriends(userId), friendId);
+        if (updated.length == 0) {
+            friends.remove(userId);
+        } else {
+            friends.put(userId, updated);
+        }
+    }
+
+    // Возвращает внутренний массив, изменять его нельзя
+    public int[] getFriends(int userId) {
+        return friends.getOrDefault(userId, SortedInts.EMPTY);
+    }
+
+    public boolean isFriend(int userId, int friendId) {
+        return SortedInts.contains(getFriends(userId), friendId);
+    }
+
+    public int[] getCommonFriends(int userId, int otherId) {
+        return SortedInts.intersect(getFriends(userId), getFriends(otherId));
+    }
+
+    // Друзья друзей, которых нет среди друзей: больше общих друзей — выше, при равенстве меньший id
+    public int[] getSuggestions(int userId, int count) {
+        int[] own = getFriends(userId);
+        int[][] lists = new int[own.length][];
+        long edges = 0;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < own.length; i++) {
+            lists[i] = getFriends(own[i]);
+            edges += lists[i].length;
+            if (lists[i].length > 0) {
+                min = Math.min(min, lists[i][0]);
+                max = Math.max(max, lists[i][lists[i].length - 1]);
+            }
+        }
+        if (edges == 0 || count <= 0) {
+            return SortedInts.EMPTY;
+        }
+        TopK top = new TopK(count);
+        if (edges < PARALLEL_EDGES) {
+            countSorted(lists, (int) edges, userId, own, top);
+            return top.ids();
+        }
+        long span = (long) max - min + 1;
+        int partitions = ForkJoinPool.getCommonPoolParallelism() * PARTITIONS_PER_THREAD;
+        int width = (int) Math.max(MIN_RANGE_WIDTH, (span + partitions - 1) / partitions);
+        long[][] results = new long[(int) ((span + width - 1) / width)][];
+        ForkJoinPool.commonPool().invoke(new CountRanges(lists, userId, own, count, min, max, width,
+                results, 0, results.length));
+        for (long[] partial : results) {
+            for (long key : partial) {
+                top.offer(key);
+            }
+        }
+        return top.ids();
+    }
+
+    // Все id второго шага в один массив, после сортировки одинаковые id идут подряд
+    private static void countSorted(int[][] lists, int edges, int userId, int[] own, TopK top) {
+        int[] candidates = new int[edges];
+        int size = 0;
+        for (int[] list : lists) {
+            System.arraycopy(list, 0, candidates, size, list.length);
+            size += list.length;
+        }
+        Arrays.sort(candidates);
+        for (int i = 0; i < size; ) {
+            int j = i;
+            while (j < size && candidates[j] == candidates[i]) {
+                j++;
+            }
+            if (candidates[i] != userId && !SortedInts.contains(own, candidates[i])) {
+                top.offer(TopK.key(j - i, candidates[i]));
+            }
+            i = j;
+        }
+    }
+
+    private static int lowerBound(int[] values, int value) {
+        int position = Arrays.binarySearch(values, value);
+        return position < 0 ? -position - 1 : position;
+    }
+
+    // Диапазоны id кандидатов: у каждого листа плотный массив счётчиков только на свой диапазон
+    private static final class CountRanges extends RecursiveAction {
+
+        private final int[][] lists;
+        private final int userId;
+        private final int[] own;
+        private final int count;
+        private final int min;
+        private final int max;
+        private final int width;
+        private final long[][] results;
+        private final int from;
+        private final int to;
+
+        CountRanges(int[][] lists, int userId, int[] own, int count, int min, int max, int width,
+                    long[][] results, int from, int to) {
+            this.lists = lists;
+            this.userId = userId;
+            this.own = own;
+            this.count = count;
+            this.min = min;
+            this.max = max;
+            this.width = width;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new CountRanges(lists, userId, own, count, min, max, width, results, from, middle),
+                        new CountRanges(lists, userId, own, count, min, max, width, results, middle, to));
+                return;
+            }
+            int low = min + from * width;
+            int high = (int) Math.min((long) low + width, (long) max + 1);
+            int[] counts = new int[high - low];
+            for (int[] list : lists) {
+                for (int position = lowerBound(list, low); position < list.length && list[position] < high; ) {
+                    counts[list[position++] - low]++;
+                }
+            }
+            TopK top = new TopK(count);
+            int friend = lowerBound(own, low);
+            // Кандидаты идут по возрастанию id, поэтому при полной куче следующий попадёт в неё, только если
+            // общих друзей строго больше, чем у худшего; остальные отсекаются одним сравнением
+            int floor = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] <= floor) {
+                    continue;
+                }
+                int candidate = low + i;
+                while (friend < own.length && own[friend] < candidate) {
+                    friend++;
+                }
+                if (candidate != userId && (friend == own.length || own[friend] != candidate)) {
+                    top.offer(TopK.key(counts[i], candidate));
+                    floor = top.minMutual();
+                }
+            }
+            results[from] = top.keys();
+        }
+    }
+
+    // Лучшие count ключей в куче с худшим на вершине; ключ — (общие друзья, обратный id)
+    private static final class TopK {
+
+        private final long[] heap;
+        private int size;
+
+        TopK(int capacity) {
+            this.heap = new long[capacity];
+        }
+
+        static long key(int mutual, int candidate) {
+            return ((long) mutual << 32) | (Integer.MAX_VALUE - candidate);
+        }
+
+        void offer(long key) {
+            if (size < heap.length) {
+                int position = size++;
+                heap[position] = key;
+                while (position > 0 && heap[(position - 1) / 2] > heap[position]) {
+                    swap((position - 1) / 2, position);
+                    position = (position - 1) / 2;
+                }
+            } else if (key > heap[0]) {
+                heap[0] = key;
+                int position = 0;
+                while (true) {
+                    int smallest = position;
+                    for (int child = 2 * position + 1; child <= 2 * position + 2 && child < size; child++) {
+                        if (heap[child] < heap[smallest]) {
+                            smallest = child;
+                        }
+                    }
+                    if (smallest == position) {
+                        return;
+                    }
+                    swap(smallest, position);
+                    position = smallest;
+                }
+            }
+        }
+
+        // Сколько общих друзей нужно, чтобы обойти худший ключ при полной куче; 0, пока куча не полна
+        int minMutual() {
+            return size < heap.length ? 0 : (int) (heap[0] >>> 32);
+        }
+
+        long[] keys() {
+            return Arrays.copyOf(heap, size);
+        }
+
+        int[] ids() {
+            long[] sorted = keys();
+            Arrays.sort(sorted);
+            int[] ids = new int[size];
+            for (int i = 0; i < size; i++) {
+                ids[i] = Integer.MAX_VALUE - (int) (sorted[size - 1 - i] & 0xFFFFFFFFL);
+            }
+            return ids;
+        }
+
+        private void swap(int a, int b) {
+            long tmp = heap[a];
+            heap[a] = heap[b];
+            heap[b] = tmp;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.StripedIntMap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Пользователи в памяти, профиль memory.
+ * Дружба хранится в том же FriendsIndex, что и у хранилища на БД, только без таблицы за ним.
+ */
+@Repository
+@Profile("memory")
+public class InMemoryUserStorage implements UserStorage {
+
+    private final StripedIntMap<User> users = new StripedIntMap<>();
+    private final AtomicInteger lastId = new AtomicInteger();
+    private final FriendsIndex friendsIndex;
+
+    public InMemoryUserStorage(FriendsIndex friendsIndex) {
+        this.friendsIndex = friendsIndex;
+    }
+
+    @Override
+    public User createUser(User user) {
+        user.setId(lastId.incrementAndGet());
+        users.put(user.getId(), copyOf(user));
+        return user;
+    }
+
+    @Override
+    public User updateUser(User user) {
+        User stored = copyOf(user);
+        users.compute(user.getId(), current -> {
+            if (current == null) {
+                throw new NotFoundException("User with ID=" + user.getId() + " not found!");
+            }
+            return stored;
+        });
+        return user;
+    }
+
+    @Override
+    public User getUserById(int userId) {
+        User user = users.get(userId);
+        if (user == null) {
+            throw new NotFoundException("User with ID=" + userId + " not found!");
+        }
+        return copyOf(user);
+    }
+
+    @Override
+    public boolean existsById(int userId) {
+        return users.containsKey(userId);
+    }
+
+    @Override
+    public List<Integer> getMissingIds(Collection<Integer> userIds) {
+        List<Integer> missing = new ArrayList<>();
+        for (Integer userId : userIds) {
+            if (userId == null || !users.containsKey(userId)) {
+                missing.add(userId);
+            }
+        }
+        return missing;
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        return getUsersPage(0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<User> getUsersPage(int afterId, int limit) {
+        // Id выдаются подряд, поэтому страница — это просто проход по диапазону id
+        List<User> page = new ArrayList<>(Math.min(limit, users.size()));
+        int last = lastId.get();
+        for (int id = Math.max(afterId, 0) + 1; id <= last && page.size() < limit; id++) {
+            User user = users.get(id);
+            if (user != null) {
+                page.add(copyOf(user));
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public String delete(int userId) {
+        // Как и UserDbStorage, только возвращает текст запроса: удаление пользователей API не поддерживает
+        return "DELETE FROM users WHERE user_id = " + userId;
+    }
+
+    @Override
+    public void addFriend(int userId, int friendId) {
+        friendsIndex.addFriend(userId, friendId);
+    }
+
+    @Override
+    public void removeFriend(int userId, int friendId) {
+        friendsIndex.removeFriend(userId, friendId);
+    }
+
+    @Override
+    public List<User> getFriends(int userId) {
+        return getUsersByIds(friendsIndex.getFriends(userId));
+    }
+
+    @Override
+    public List<User> getCommonFriends(int friend1, int friend2) {
+        return getUsersByIds(friendsIndex.getCommonFriends(friend1, friend2));
+    }
+
+    @Override
+    public boolean isFriend(int userId, int friendId) {
+        return friendsIndex.isFriend(userId, friendId);
+    }
+
+    @Override
+    public List<User> getFriendSuggestions(int userId, int count) {
+        return getUsersByIds(friendsIndex.getSuggestions(userId, count));
+    }
+
+    private List<User> getUsersByIds(int[] userIds) {
+        List<User> result = new ArrayList<>(userIds.length);
+        for (int userId : userIds) {
+            User user = users.get(userId);
+            if (user != null) {
+                result.add(copyOf(user));
+            }
+        }
+        return result;
+    }
+
+    private static User copyOf(User user) {
+        return user.toBuilder()
+                .friends(user.getFriends() == null ? new HashSet<>() : new HashSet<>(user.getFriends()))
+                .build();
+    }
+}
@@ -1,54 +1,101 @@
 package ru.yandex.practicum.filmorate.storage.user;
 
+import jakarta.annotation.PostConstruct;
+import org.springframework.context.annotation.Profile;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
-import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.KnownIds;
 
-import java.time.LocalDate;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Repository
+@Profile("!memory")
 public class UserDbStorage implements UserStorage {
 
-    private final JdbcTemplate jdbcTemplate;
+    private static final int BATCH_SIZE = 1000;
+    private static final int FRIEND_LOCK_STRIPES = 16;
 
-    public UserDbStorage(JdbcTemplate jdbcTemplate) {
+    private final JdbcTemplate jdbcTemplate;
+    private final FriendsIndex friendsIndex;
+    private final KnownIds knownIds = new KnownIds();
+    // Метаданные таблицы читаются при первой вставке, дальше оператор переиспользуется
+    private final SimpleJdbcInsert userInsert;
+    // Запись в friends и правка индекса идут под одной блокировкой, иначе параллельные
+    // добавление и удаление одной пары могут оставить в индексе ребро, которого нет в таблице
+    private final ReentrantLock[] friendLocks = new ReentrantLock[FRIEND_LOCK_STRIPES];
+
+    public UserDbStorage(JdbcTemplate jdbcTemplate, FriendsIndex friendsIndex) {
         this.jdbcTemplate = jdbcTemplate;
+        this.userInsert = new SimpleJdbcInsert(jdbcTemplate)
+                .withTableName("users")
+                .usingColumns("user_name", "login", "email", "birthday")
+                .usingGeneratedKeyColumns("user_id");
+        this.friendsIndex = friendsIndex;
+        for (int i = 0; i < FRIEND_LOCK_STRIPES; i++) {
+            friendLocks[i] = new ReentrantLock();
+        }
+    }
+
+    @PostConstruct
+    public void loadKnownIds() {
+        knownIds.rebuild(jdbcTemplate.queryForList("SELECT user_id FROM users", Integer.class));
+    }
+
+    @PostConstruct
+    public void loadFriendsIndex() {
+        // Столбцы таблицы friends в двух массивах int, без объекта на строку
+        int[][] columns = {new int[1024], new int[1024]};
+        int[] size = new int[1];
+        jdbcTemplate.query("SELECT user_id, friend_id FROM friends", rs -> {
+            if (size[0] == columns[0].length) {
+                columns[0] = Arrays.copyOf(columns[0], size[0] * 2);
+                columns[1] = Arrays.copyOf(columns[1], size[0] * 2);
+            }
+            columns[0][size[0]] = rs.getInt(1);
+            columns[1][size[0]++] = rs.getInt(2);
+        });
+        friendsIndex.rebuild(Arrays.copyOf(columns[0], size[0]), Arrays.copyOf(columns[1], size[0]));
     }
 
     @Override
     public List<User> getAllUsers() {
         String sqlQuery = "SELECT * FROM users";
-        SqlRowSet srs = jdbcTemplate.queryForRowSet(sqlQuery);
-        List<User> users = new ArrayList<>();
-        while (srs.next()) {
-            users.add(userMap(srs));
-        }
-        return users;
+        return jdbcTemplate.query(sqlQuery, UserDbStorage::mapUser);
+    }
+
+    @Override
+    public List<User> getUsersPage(int afterId, int limit) {
+        String sqlQuery = "SELECT * FROM users "
+                + "WHERE user_id > ? "
+                + "ORDER BY user_id "
+                + "LIMIT ?";
+        return jdbcTemplate.query(sqlQuery, UserDbStorage::mapUser, afterId, limit);
     }
 
     @Override
     public User createUser(User user) {
-        Map<String, Object> keys = new SimpleJdbcInsert(this.jdbcTemplate)
-                .withTableName("users")
-                .usingColumns("user_name", "login", "email", "birthday")
-                .usingGeneratedKeyColumns("user_id")
-                .executeAndReturnKeyHolder(Map.of(
+        Map<String, Object> keys = userInsert.executeAndReturnKeyHolder(Map.of(
                         "user_name", user.getName(),
                         "login", user.getLogin(),
                         "email", user.getEmail(),
                         "birthday", java.sql.Date.valueOf(user.getBirthday())))
                 .getKeys();
         user.setId((Integer) keys.get("user_id"));
+        knownIds.add(user.getId());
         return user;
     }
 
     @Override
     public User updateUser(User user) {
-        getUserById(user.getId());
+        if (!existsById(user.getId())) {
+            throw new NotFoundException("User with ID=" + user.getId() + " not found!");
+        }
         String sqlQuery = "UPDATE users "
                 + "SET user_name = ?, "
                 + "login = ?, "
@@ -69,74 +116,116 @@ public class UserDbStorage implements UserStorage {
     @Override
     public User getUserById(int userId) {
         String sqlQuery = "SELECT * FROM users WHERE user_id = ?";
-        SqlRowSet srs = jdbcTemplate.queryForRowSet(sqlQuery, userId);
-        if (srs.next()) {
-            return userMap(srs);
-        } else {
+        List<User> users = jdbcTemplate.query(sqlQuery, UserDbStorage::mapUser, userId);
+        if (users.isEmpty()) {
             throw new NotFoundException("User with ID=" + userId + " not found!");
         }
+        return users.get(0);
+    }
+
+    @Override
+    public boolean existsById(int userId) {
+        return getMissingIds(List.of(userId)).isEmpty();
+    }
+
+    @Override
+    public List<Integer> getMissingIds(Collection<Integer> userIds) {
+        return knownIds.getMissing(userIds, this::findExistingIds);
+    }
+
+    private List<Integer> findExistingIds(List<Integer> userIds) {
+        String inSql = String.join(", ", Collections.nCopies(userIds.size(), "?"));
+        String sqlQuery = "SELECT user_id FROM users WHERE user_id IN (" + inSql + ")";
+        return jdbcTemplate.queryForList(sqlQuery, Integer.class, userIds.toArray());
     }
 
     @Override
     public void addFriend(int userId, int friendId) {
         String sqlQuery = "INSERT INTO friends (user_id, friend_id, status) "
                 + "VALUES(?, ?, ?)";
-        jdbcTemplate.update(sqlQuery, userId, friendId, true);
+        ReentrantLock lock = friendLock(userId);
+        lock.lock();
+        try {
+            jdbcTemplate.update(sqlQuery, userId, friendId, true);
+            friendsIndex.addFriend(userId, friendId);
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
     public void removeFriend(int userId, int friendId) {
         String sqlQuery = "DELETE friends "
                 + "WHERE user_id = ? AND friend_id = ?";
-        jdbcTemplate.update(sqlQuery, userId, friendId);
+        ReentrantLock lock = friendLock(userId);
+        lock.lock();
+        try {
+            if (jdbcTemplate.update(sqlQuery, userId, friendId) > 0) {
+                friendsIndex.removeFriend(userId, friendId);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock friendLock(int userId) {
+        return friendLocks[Math.floorMod(userId, FRIEND_LOCK_STRIPES)];
     }
 
     @Override
     public List<User> getFriends(int userId) {
-        List<User> friends = new ArrayList<>();
         String sqlQuery = "SELECT * FROM users "
                 + "WHERE users.user_id IN (SELECT friend_id from friends "
                 + "WHERE user_id = ?)";
-        SqlRowSet srs = jdbcTemplate.queryForRowSet(sqlQuery, userId);
-        while (srs.next()) {
-            friends.add(UserDbStorage.userMap(srs));
-        }
-        return friends;
+        return jdbcTemplate.query(sqlQuery, UserDbStorage::mapUser, userId);
     }
 
+    @Override
     public List<User> getCommonFriends(int friend1, int friend2) {
-        List<User> commonFriends = new ArrayList<>();
-        String sqlQuery = "SELECT * FROM users "
-                + "WHERE users.user_id IN (SELECT friend_id from friends "
-                + "WHERE user_id IN (?, ?) "
-                + "AND friend_id NOT IN (?, ?))";
-        SqlRowSet srs = jdbcTemplate.queryForRowSet(sqlQuery, friend1, friend2, friend1, friend2);
-        while (srs.next()) {
-            commonFriends.add(UserDbStorage.userMap(srs));
-        }
-        return commonFriends;
+        return getUsersByIds(friendsIndex.getCommonFriends(friend1, friend2));
     }
 
+    @Override
     public boolean isFriend(int userId, int friendId) {
-        String sqlQuery = "SELECT * FROM friends WHERE "
-                + "user_id = ? AND friends_id = ?";
-        SqlRowSet srs = jdbcTemplate.queryForRowSet(sqlQuery, userId, friendId);
-        return srs.next();
-    }
-
-    private static User userMap(SqlRowSet srs) {
-        int id = srs.getInt("user_id");
-        String name = srs.getString("user_name");
-        String login = srs.getString("login");
-        String email = srs.getString("email");
-        LocalDate birthday = Objects.requireNonNull(srs.getTimestamp("birthday"))
-                .toLocalDateTime().toLocalDate();
+        return friendsIndex.isFriend(userId, friendId);
+    }
+
+    @Override
+    public List<User> getFriendSuggestions(int userId, int count) {
+        int[] suggested = friendsIndex.getSuggestions(userId, count);
+        // getUsersByIds сортирует по id, порядок рекомендаций восстанавливаем по карте
+        Map<Integer, User> users = new HashMap<>();
+        getUsersByIds(suggested).forEach(user -> users.put(user.getId(), user));
+        List<User> result = new ArrayList<>(suggested.length);
+        for (int suggestedId : suggested) {
+            User user = users.get(suggestedId);
+            if (user != null) {
+                result.add(user);
+            }
+        }
+        return result;
+    }
+
+    private List<User> getUsersByIds(int[] userIds) {
+        List<User> users = new ArrayList<>(userIds.length);
+        for (int from = 0; from < userIds.length; from += BATCH_SIZE) {
+            int to = Math.min(from + BATCH_SIZE, userIds.length);
+            Object[] batch = Arrays.stream(userIds, from, to).boxed().toArray();
+            String inSql = String.join(", ", Collections.nCopies(batch.length, "?"));
+            String sqlQuery = "SELECT * FROM users WHERE user_id IN (" + inSql + ") ORDER BY user_id";
+            users.addAll(jdbcTemplate.query(sqlQuery, UserDbStorage::mapUser, batch));
+        }
+        return users;
+    }
+
+    // Строки читаются прямо из курсора, без промежуточной копии в SqlRowSet
+    private static User mapUser(ResultSet rs, int rowNum) throws SQLException {
         return User.builder()
-                .id(id)
-                .name(name)
-                .login(login)
-                .email(email)
-                .birthday(birthday)
+                .id(rs.getInt("user_id"))
+                .name(rs.getString("user_name"))
+                .login(rs.getString("login"))
+                .email(rs.getString("email"))
+                .birthday(Objects.requireNonNull(rs.getDate("birthday")).toLocalDate())
                 .build();
     }
 }
\ No newline at end of file
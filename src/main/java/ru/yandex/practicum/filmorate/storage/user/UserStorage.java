@@ -3,6 +3,7 @@ package ru.yandex.practicum.filmorate.storage.user;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.FriendsStorage;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface UserStorage extends FriendsStorage {
@@ -12,7 +13,13 @@ public interface UserStorage extends FriendsStorage {
 
     User getUserById(int id);
 
+    boolean existsById(int id);
+
+    List<Integer> getMissingIds(Collection<Integer> ids);
+
     List<User> getAllUsers();
 
+    List<User> getUsersPage(int afterId, int limit);
+
     String delete(int id);
 }
\ No newline at end of file
@@ -0,0 +1,184 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.durability.WriteAheadLog;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.RatingMpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DurabilityTests {
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    void restartReplaysLogWithoutDataLoss() {
+        int filmId;
+        int userId;
+        int friendId;
+        try (ConfigurableApplicationContext context = start(false)) {
+            FilmService filmService = context.getBean(FilmService.class);
+            UserService userService = context.getBean(UserService.class);
+            filmId = filmService.addFilm(film(List.of(1, 2))).getId();
+            int otherFilmId = filmService.addFilm(film(List.of())).getId();
+            userId = userService.createUser(user("durable1")).getId();
+            friendId = userService.createUser(user("durable2")).getId();
+
+            Film updated = filmService.getFilmById(filmId);
+            updated.setName("Updated");
+            updated.setGenres(new LinkedHashSet<>(List.of(new Genre(2, null), new Genre(3, null))));
+            filmService.updateFilm(updated);
+            filmService.addLike(filmId, userId);
+            filmService.addLike(filmId, friendId);
+            filmService.addLike(otherFilmId, userId);
+            filmService.deleteLike(otherFilmId, userId);
+            userService.addFriend(userId, friendId);
+        }
+
+        try (ConfigurableApplicationContext context = start(false)) {
+            assertRestored(context, filmId, userId, friendId);
+            // Счётчики id продолжаются после восстановленных записей
+            assertTrue(context.getBean(UserService.class).createUser(user("durable3")).getId() > friendId);
+        }
+    }
+
+    @Test
+    void restartLoadsSnapshotAndLaterLog() throws Exception {
+        int filmId;
+        int userId;
+        int friendId;
+        try (ConfigurableApplicationContext context = start(true)) {
+            FilmService filmService = context.getBean(FilmService.class);
+            UserService userService = context.getBean(UserService.class);
+            filmId = filmService.addFilm(film(List.of(1))).getId();
+            userId = userService.createUser(user("snap1")).getId();
+            friendId = userService.createUser(user("snap2")).getId();
+        }
+        try (var files = Files.list(dir)) {
+            assertTrue(files.anyMatch(file -> file.getFileName().toString().startsWith("snapshot-")));
+        }
+
+        try (ConfigurableApplicationContext context = start(false)) {
+            FilmService filmService = context.getBean(FilmService.class);
+            Film updated = filmService.getFilmById(filmId);
+            updated.setName("Updated");
+            updated.setGenres(new LinkedHashSet<>(List.of(new Genre(2, null), new Genre(3, null))));
+            filmService.updateFilm(updated);
+            filmService.addLike(filmId, userId);
+            filmService.addLike(filmId, friendId);
+            context.getBean(UserService.class).addFriend(userId, friendId);
+        }
+
+        try (ConfigurableApplicationContext context = start(false)) {
+            assertRestored(context, filmId, userId, friendId);
+        }
+    }
+
+    @Test
+    void transactionalUpdateSurvivesConcurrentSnapshot() {
+        int filmId;
+        int rolledBackId;
+        try (ConfigurableApplicationContext context = start(false)) {
+            FilmService filmService = context.getBean(FilmService.class);
+            WriteAheadLog wal = context.getBean(WriteAheadLog.class);
+            TransactionTemplate transaction = new TransactionTemplate(
+                    context.getBean(PlatformTransactionManager.class));
+            filmId = filmService.addFilm(film(List.of(1))).getId();
+            rolledBackId = filmService.addFilm(film(List.of(1))).getId();
+
+            // Снимок проходит, пока обновление ещё не закоммичено, и не видит его
+            transaction.executeWithoutResult(status -> {
+                Film updated = filmService.getFilmById(filmId);
+                updated.setName("Updated");
+                updated.setGenres(new LinkedHashSet<>(List.of(new Genre(2, null), new Genre(3, null))));
+                filmService.updateFilm(updated);
+                CompletableFuture.runAsync(() -> {
+                    try {
+                        wal.snapshot();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }).join();
+            });
+            transaction.executeWithoutResult(status -> {
+                Film updated = filmService.getFilmById(rolledBackId);
+                updated.setName("Rolled back");
+                filmService.updateFilm(updated);
+                status.setRollbackOnly();
+            });
+        }
+
+        try (ConfigurableApplicationContext context = start(false)) {
+            FilmService filmService = context.getBean(FilmService.class);
+            Film film = filmService.getFilmById(filmId);
+            assertEquals("Updated", film.getName());
+            assertEquals(List.of(2, 3), film.getGenres().stream().map(Genre::getId).toList());
+            assertEquals("Film", filmService.getFilmById(rolledBackId).getName());
+        }
+    }
+
+    private void assertRestored(ConfigurableApplicationContext context, int filmId, int userId, int friendId) {
+        FilmService filmService = context.getBean(FilmService.class);
+        UserService userService = context.getBean(UserService.class);
+        Film film = filmService.getFilmById(filmId);
+        assertEquals("Updated", film.getName());
+        assertEquals(List.of(2, 3), film.getGenres().stream().map(Genre::getId).toList());
+        assertEquals(filmId, filmService.getTopFilms(1).iterator().next().getId());
+        assertEquals(List.of(friendId), userService.getAllFriends(userId).stream().map(User::getId).toList());
+        assertEquals(List.of(userId, friendId), userService.getAllUsers().stream().map(User::getId).toList());
+    }
+
+    // Каждый запуск получает новую пустую базу, как после перезапуска процесса.
+    // Аргументы командной строки, а не properties(): те лишь значения по умолчанию и проигрывают application.properties
+    private ConfigurableApplicationContext start(boolean snapshotOnShutdown) {
+        String database = "durable" + UUID.randomUUID().toString().replace("-", "");
+        return new SpringApplicationBuilder(FilmorateApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                        "--filmorate.durability.enabled=true",
+                        "--filmorate.durability.dir=" + dir,
+                        "--filmorate.durability.snapshot-interval=0s",
+                        "--filmorate.durability.snapshot-on-shutdown=" + snapshotOnShutdown);
+    }
+
+    private static Film film(List<Integer> genres) {
+        return Film.builder()
+                .name("Film")
+                .description("Description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100L)
+                .mpa(new RatingMpa(1, null))
+                .genres(new LinkedHashSet<>(genres.stream().map(id -> new Genre(id, null)).toList()))
+                .build();
+    }
+
+    private static User user(String login) {
+        return User.builder()
+                .email(login + "@mail.ru")
+                .login(login)
+                .name(login)
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+}
@@ -0,0 +1,251 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.controller.FilmController;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.RatingMpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeDbStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.yandex.practicum.filmorate.QueryCounting.countQueries;
+
+@SpringBootTest
+class FilmDbStorageTests {
+
+    @Autowired
+    private FilmStorage filmStorage;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @Autowired
+    private LikeDbStorage likeDbStorage;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private FilmController filmController;
+
+    @BeforeEach
+    void setUp() {
+        createFilms(5);
+    }
+
+    @Test
+    void getAllFilmsUsesConstantNumberOfQueries() {
+        int smallCatalog = countQueries(() -> filmStorage.getAllFilms());
+        createFilms(50);
+        int largeCatalog = countQueries(() -> filmStorage.getAllFilms());
+
+        assertTrue(smallCatalog > 0);
+        assertEquals(smallCatalog, largeCatalog, "Число запросов не должно зависеть от количества фильмов");
+    }
+
+    @Test
+    void getMostPopularFilmsUsesConstantNumberOfQueries() {
+        int fewFilms = countQueries(() -> filmStorage.getMostPopularFilms(2));
+        createFilms(50);
+        int manyFilms = countQueries(() -> filmStorage.getMostPopularFilms(50));
+
+        assertEquals(fewFilms, manyFilms, "Число запросов не должно зависеть от количества фильмов");
+    }
+
+    @Test
+    void getAllFilmsLoadsGenresForEveryFilm() {
+        Film created = filmStorage.createFilm(film(Set.of(new Genre(1, null), new Genre(3, null))));
+
+        Film loaded = filmStorage.getAllFilms().stream()
+                .filter(film -> film.getId() == created.getId())
+                .findFirst()
+                .orElseThrow();
+
+        assertEquals(List.of(1, 3), loaded.getGenres().stream().map(Genre::getId).toList());
+        assertEquals("Комедия", loaded.getGenres().iterator().next().getName());
+        assertEquals(loaded.getGenres().size(), filmStorage.getFilmById(created.getId()).getGenres().size());
+    }
+
+    @Test
+    void filmsWithoutGenresAndWithAllGenresAreLoadedInOneQuery() {
+        Film noGenres = filmStorage.createFilm(film(Set.of()));
+        Film allGenres = filmStorage.createFilm(film(IntStream.rangeClosed(1, 6)
+                .mapToObj(id -> new Genre(id, null))
+                .collect(Collectors.toSet())));
+
+        Film[] loaded = new Film[2];
+        assertEquals(1, countQueries(() -> loaded[0] = filmStorage.getFilmById(noGenres.getId())));
+        assertEquals(1, countQueries(() -> loaded[1] = filmStorage.getFilmById(allGenres.getId())));
+        assertTrue(loaded[0].getGenres().isEmpty());
+        assertEquals(List.of(1, 2, 3, 4, 5, 6), loaded[1].getGenres().stream().map(Genre::getId).toList());
+        assertEquals("Боевик", loaded[1].getGenres().stream().reduce((first, second) -> second).orElseThrow().getName());
+        assertEquals("G", loaded[1].getMpa().getName());
+
+        // Строки join не съедают LIMIT: на странице ровно два фильма
+        List<Film> page = filmStorage.getFilmsPage(noGenres.getId() - 1, 2);
+        assertEquals(List.of(noGenres.getId(), allGenres.getId()), page.stream().map(Film::getId).toList());
+        assertEquals(genresByFilm(List.of(loaded[0], loaded[1])), genresByFilm(page));
+        assertEquals(1, countQueries(() -> filmStorage.getFilmsPage(0, 100)));
+    }
+
+    @Test
+    void getMostPopularFilmsFollowsLikesWithoutScanningLikes() {
+        Film first = filmStorage.createFilm(film(Set.of()));
+        Film second = filmStorage.createFilm(film(Set.of()));
+        User user1 = userStorage.createUser(user("user1"));
+        User user2 = userStorage.createUser(user("user2"));
+        likeDbStorage.addLike(second.getId(), user1.getId());
+        likeDbStorage.addLike(second.getId(), user2.getId());
+        likeDbStorage.addLike(first.getId(), user1.getId());
+
+        List<Integer> ids = List.of(first.getId(), second.getId());
+        assertEquals(List.of(second.getId(), first.getId()), popularAmong(ids));
+        assertTrue(likeDbStorage.checkPopularFilmsIndex());
+
+        likeDbStorage.deleteLike(second.getId(), user1.getId());
+        likeDbStorage.deleteLike(second.getId(), user2.getId());
+        assertEquals(List.of(first.getId(), second.getId()), popularAmong(ids));
+
+        // Лайк в обход хранилища обнаруживается сверкой и исправляется перестроением
+        jdbcTemplate.update("INSERT INTO likes (film_id, user_id) VALUES (?, ?)", second.getId(), user1.getId());
+        jdbcTemplate.update("INSERT INTO likes (film_id, user_id) VALUES (?, ?)", second.getId(), user2.getId());
+        assertFalse(likeDbStorage.checkPopularFilmsIndex());
+        assertEquals(List.of(second.getId(), first.getId()), popularAmong(ids));
+        assertTrue(likeDbStorage.checkPopularFilmsIndex());
+    }
+
+    @Test
+    void getFilmsPageWalksCatalogByCursor() {
+        List<Integer> allIds = filmStorage.getAllFilms().stream().map(Film::getId).sorted().toList();
+
+        List<Integer> pagedIds = new ArrayList<>();
+        int after = 0;
+        List<Film> page;
+        do {
+            page = filmStorage.getFilmsPage(after, 3);
+            page.forEach(film -> pagedIds.add(film.getId()));
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == 3);
+
+        assertEquals(allIds, pagedIds);
+    }
+
+    @Test
+    void exportFilmsStreamsWholeCatalogWithGenres() {
+        filmStorage.createFilm(film(Set.of()));
+        List<Film> exported = new ArrayList<>();
+        filmStorage.exportFilms(exported::add);
+
+        assertEquals(genresByFilm(filmStorage.getAllFilms()), genresByFilm(exported));
+    }
+
+    @Test
+    void exportFlushesOncePerBatchOfFilms() throws IOException {
+        createFilms(600);
+        int[] flushes = new int[1];
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes[0]++;
+            }
+        };
+        filmController.exportFilms().writeTo(out);
+
+        long films = out.toString(StandardCharsets.UTF_8).lines().filter(line -> !line.isBlank()).count();
+        assertEquals(filmStorage.getAllFilms().size(), films);
+        // Первый фильм, затем каждые 500 и закрытие — а не сброс после каждого фильма
+        assertTrue(flushes[0] <= films / 500 + 2, "Сбросов буфера: " + flushes[0]);
+    }
+
+    @Test
+    void getFilmByIdIsServedFromCacheUntilUpdate() {
+        Film created = filmStorage.createFilm(film(Set.of(new Genre(2, null))));
+        filmStorage.getFilmById(created.getId());
+
+        assertEquals(0, countQueries(() -> filmStorage.getFilmById(created.getId())));
+
+        created.setName("Updated");
+        filmStorage.updateFilm(created);
+        Film reloaded = filmStorage.getFilmById(created.getId());
+        assertEquals("Updated", reloaded.getName());
+
+        reloaded.setName("Changed by caller");
+        assertEquals("Updated", filmStorage.getFilmById(created.getId()).getName());
+    }
+
+    @Test
+    void updateFilmWritesOnlyChangedGenres() {
+        Film created = filmStorage.createFilm(film(Set.of(new Genre(1, null), new Genre(2, null))));
+
+        // UPDATE и чтение сохранённых жанров; жанры не менялись — ни удалений, ни вставок
+        created.setName("Same genres");
+        assertEquals(2, countQueries(() -> filmStorage.updateFilm(created)));
+
+        created.setGenres(new LinkedHashSet<>(List.of(new Genre(3, null), new Genre(2, null))));
+        Film[] updated = new Film[1];
+        assertEquals(4, countQueries(() -> updated[0] = filmStorage.updateFilm(created)));
+        assertEquals(List.of(2, 3), updated[0].getGenres().stream().map(Genre::getId).toList());
+        assertEquals(List.of(2, 3), filmStorage.getFilmById(created.getId()).getGenres().stream()
+                .map(Genre::getId)
+                .toList());
+    }
+
+    private List<Integer> popularAmong(List<Integer> filmIds) {
+        return filmStorage.getMostPopularFilms(Integer.MAX_VALUE).stream()
+                .map(Film::getId)
+                .filter(filmIds::contains)
+                .toList();
+    }
+
+    private void createFilms(int count) {
+        for (int i = 0; i < count; i++) {
+            filmStorage.createFilm(film(Set.of(new Genre(1 + i % 6, null), new Genre(1 + (i + 1) % 6, null))));
+        }
+    }
+
+    private static Film film(Set<Genre> genres) {
+        return Film.builder()
+                .name("Film")
+                .description("Description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100L)
+                .mpa(new RatingMpa(1, null))
+                .genres(new LinkedHashSet<>(genres))
+                .build();
+    }
+
+    private static User user(String login) {
+        return User.builder()
+                .email(login + "@mail.ru")
+                .login(login)
+                .name(login)
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+
+    private static Map<Integer, List<Integer>> genresByFilm(List<Film> films) {
+        return films.stream().collect(Collectors.toMap(Film::getId,
+                film -> film.getGenres().stream().map(Genre::getId).toList()));
+    }
+}
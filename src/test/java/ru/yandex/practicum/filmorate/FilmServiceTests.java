@@ -0,0 +1,291 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFacets;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.model.FilmImportResult;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.RatingMpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.RecommendationService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.film.CoLikeIndex;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.yandex.practicum.filmorate.QueryCounting.countQueries;
+
+@SpringBootTest
+class FilmServiceTests {
+
+    @Autowired
+    private FilmService filmService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private CoLikeIndex coLikeIndex;
+
+    @Test
+    void addFilmValidatesReferenceDataWithoutQueries() {
+        Film film = film(5, IntStream.rangeClosed(1, 6).mapToObj(id -> new Genre(id, null)).toList());
+
+        // Раньше: 2 запроса на MPA и по 2 на каждый жанр плюс вставка, итого 17 для шести жанров
+        int queries = countQueries(() -> filmService.addFilm(film));
+
+        assertTrue(queries <= 3, "Ожидались только запросы на запись, выполнено " + queries);
+        assertEquals("NC-17", film.getMpa().getName());
+        assertEquals("Боевик", film.getGenres().stream().reduce((first, second) -> second).orElseThrow().getName());
+
+        // Фильм получил копии из справочника: их изменение не видно следующим фильмам
+        film.getMpa().setName("Changed");
+        film.getGenres().forEach(genre -> genre.setName("Changed"));
+        Film next = filmService.addFilm(film(5, List.of(new Genre(6, null))));
+        assertEquals("NC-17", next.getMpa().getName());
+        assertEquals("Боевик", next.getGenres().iterator().next().getName());
+    }
+
+    @Test
+    void addFilmRejectsUnknownReferenceData() {
+        assertThrows(NotFoundException.class, () -> filmService.addFilm(film(6, List.of())));
+        assertThrows(NotFoundException.class, () -> filmService.addFilm(film(1, List.of(new Genre(7, null)))));
+    }
+
+    @Test
+    void importFilmsInsertsInBatchesAndReportsRejectedItems() {
+        List<Film> films = new java.util.ArrayList<>(IntStream.range(0, 50)
+                .mapToObj(i -> film(1 + i % 5, List.of(new Genre(1 + i % 6, null), new Genre(2, null))))
+                .toList());
+        Film unnamed = film(1, List.of());
+        unnamed.setName(" ");
+        films.add(10, unnamed);
+        films.add(20, film(9, List.of()));
+
+        FilmImportResult[] result = new FilmImportResult[1];
+        int queries = countQueries(() -> result[0] = filmService.importFilms(films));
+
+        // Одна пачка фильмов и одна пачка жанров вместо трёх запросов на каждый фильм
+        assertEquals(queries(2), queries);
+        assertEquals(50, result[0].getCreated().size());
+        assertEquals(List.of(10, 20), result[0].getErrors().stream()
+                .map(FilmImportResult.ItemError::getIndex)
+                .toList());
+
+        Film created = result[0].getCreated().get(4);
+        Film loaded = filmService.getFilmById(created.getId());
+        assertEquals(created.getMpa().getId(), loaded.getMpa().getId());
+        assertEquals(List.of(2, 5), loaded.getGenres().stream().map(Genre::getId).toList());
+    }
+
+    @Test
+    void addLikeChecksExistenceWithoutReadingEntities() {
+        Film film = filmService.addFilm(film(1, List.of(new Genre(1, null))));
+        User user = userService.createUser(User.builder()
+                .email("liker@mail.ru")
+                .login("liker")
+                .name("liker")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build());
+
+        assertEquals(queries(1), countQueries(() -> filmService.addLike(film.getId(), user.getId())));
+        assertThrows(NotFoundException.class, () -> filmService.addLike(film.getId(), 9999));
+        assertThrows(NotFoundException.class, () -> filmService.deleteLike(9999, user.getId()));
+    }
+
+    @Test
+    void similarFilmsAndRecommendationsFollowCoLikes() {
+        int[] films = IntStream.range(0, 4).map(i -> filmService.addFilm(film(1, List.of())).getId()).toArray();
+        int[] users = IntStream.range(0, 3).map(i -> userService.createUser(User.builder()
+                .email("colike" + i + "@mail.ru")
+                .login("colike" + i)
+                .name("colike" + i)
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build()).getId()).toArray();
+        int[][] likes = {{0, 0}, {1, 0}, {2, 0}, {0, 1}, {1, 1}, {0, 2}, {3, 2}};
+        for (int[] like : likes) {
+            filmService.addLike(films[like[0]], users[like[1]]);
+        }
+
+        assertEquals(List.of(films[1], films[2], films[3]), ids(recommendationService.getSimilarFilms(films[0], 10)));
+        assertEquals(List.of(films[2], films[3]), ids(recommendationService.getRecommendations(users[1], 10)));
+
+        // Построение с нуля даёт ту же матрицу, что и пошаговое обновление
+        CoLikeIndex rebuilt = new CoLikeIndex();
+        rebuilt.rebuild(Arrays.stream(likes).mapToInt(like -> films[like[0]]).toArray(),
+                Arrays.stream(likes).mapToInt(like -> users[like[1]]).toArray());
+        assertArrayEquals(rebuilt.getSimilar(films[0], 10), coLikeIndex.getSimilar(films[0], 10));
+        assertArrayEquals(rebuilt.getRecommendations(users[2], 10), coLikeIndex.getRecommendations(users[2], 10));
+
+        filmService.deleteLike(films[0], users[2]);
+        assertEquals(List.of(films[1], films[2]), ids(recommendationService.getSimilarFilms(films[0], 10)));
+        assertThrows(NotFoundException.class, () -> recommendationService.getRecommendations(9999, 10));
+    }
+
+    @Test
+    void concurrentLikesBuildSameCoLikeMatrixAsRebuild() {
+        // Каждый пользователь лайкает и снимает лайки в своём потоке, все потоки одновременно
+        CoLikeIndex index = new CoLikeIndex();
+        int[][] kept = new int[8][];
+        IntStream.range(0, kept.length).parallel().forEach(userId -> {
+            Random random = new Random(userId);
+            for (int film = 0; film < 40; film++) {
+                index.addLike(film, userId);
+            }
+            kept[userId] = IntStream.range(0, 40).filter(film -> random.nextBoolean()).toArray();
+            for (int film = 0; film < 40; film++) {
+                if (Arrays.binarySearch(kept[userId], film) < 0) {
+                    index.removeLike(film, userId);
+                }
+            }
+        });
+
+        CoLikeIndex rebuilt = new CoLikeIndex();
+        rebuilt.rebuild(Arrays.stream(kept).flatMapToInt(Arrays::stream).toArray(),
+                IntStream.range(0, kept.length).flatMap(user -> IntStream.generate(() -> user)
+                        .limit(kept[user].length)).toArray());
+        for (int film = 0; film < 40; film++) {
+            assertArrayEquals(rebuilt.getSimilar(film, 40), index.getSimilar(film, 40), "Фильм " + film);
+        }
+    }
+
+    @Test
+    void searchMatchesWordFormsAndRanksNameAboveDescription() {
+        Film captain = filmService.addFilm(film("Приключения капитана Врунгеля", "Мультфильм о ёжике и море"));
+        Film stories = filmService.addFilm(film("Морские истории", "Новое приключение Врунгеля и его яхты"));
+
+        assertEquals(List.of(captain.getId(), stories.getId()),
+                ids(filmService.searchFilms("приключение врунгель", 0, 10)));
+        assertEquals(List.of(captain.getId()), ids(filmService.searchFilms("ЕЖИК", 0, 10)));
+        assertEquals(List.of(stories.getId()), ids(filmService.searchFilms("Врунгель", 1, 1)));
+        assertEquals(List.of(), filmService.searchFilms("Врунгель", 2, 10));
+        assertEquals(List.of(), filmService.searchFilms("врунгель подводная лодка", 0, 10));
+
+        stories.setName("Яхта «Беда»");
+        stories.setDescription("Без капитана");
+        filmService.updateFilm(stories);
+        assertEquals(List.of(captain.getId()), ids(filmService.searchFilms("врунгель", 0, 10)));
+        assertEquals(List.of(stories.getId()), ids(filmService.searchFilms("беда", 0, 10)));
+        assertThrows(ValidationException.class, () -> filmService.searchFilms("врунгель", 0, 0));
+    }
+
+    @Test
+    void filterAndFacetsFollowGenreRatingAndYear() {
+        // Год вне остальных тестов, чтобы фильтр видел только эти фильмы
+        Film drama = filmService.addFilm(film(1, List.of(new Genre(2, null)), 1933));
+        Film comedy = filmService.addFilm(film(3, List.of(new Genre(1, null), new Genre(2, null)), 1938));
+        Film late = filmService.addFilm(film(3, List.of(new Genre(1, null)), 1941));
+
+        FilmFilter filter = new FilmFilter();
+        filter.setYearFrom(1933);
+        filter.setYearTo(1941);
+        assertEquals(List.of(drama.getId(), comedy.getId(), late.getId()), ids(filmService.getAllFilms(filter)));
+        filter.setGenre(List.of(1, 2));
+        filter.setMpa(List.of(3));
+        assertEquals(List.of(comedy.getId(), late.getId()), ids(filmService.getAllFilms(filter)));
+        // Фильмы по id из индекса читаются одним запросом, а не по одному на фильм
+        assertEquals(queries(1), countQueries(() -> filmService.getAllFilms(filter)));
+        assertEquals(List.of(late.getId()), ids(filmService.getFilmsPage(comedy.getId(), 1, filter).getItems()));
+
+        FilmFacets facets = filmService.getFacets(filter);
+        assertEquals(2, facets.getTotal());
+        assertEquals(Map.of(1, 2, 2, 1), facets.getGenres());
+        assertEquals(Map.of(1, 1, 3, 2), facets.getMpa());
+        // Для десятилетий условие на год не действует, поэтому смотрим только на свои
+        assertEquals(1, facets.getDecades().get(1930));
+        assertEquals(1, facets.getDecades().get(1940));
+
+        // Смена жанров и года снимает фильм со старых карт
+        comedy.setGenres(new LinkedHashSet<>(List.of(new Genre(2, null))));
+        comedy.setReleaseDate(LocalDate.of(1925, 1, 1));
+        filmService.updateFilm(comedy);
+        assertEquals(List.of(late.getId()), ids(filmService.getAllFilms(filter)));
+        filter.setYearTo(1932);
+        assertThrows(ValidationException.class, () -> filmService.getFacets(filter));
+    }
+
+    @Test
+    void popularFilmsScopedByGenreAndYear() {
+        // Год вне остальных тестов, чтобы в его рейтинге были только эти фильмы
+        Film comedy = filmService.addFilm(film(1, List.of(new Genre(1, null)), 1912));
+        Film drama = filmService.addFilm(film(1, List.of(new Genre(2, null)), 1912));
+        Film both = filmService.addFilm(film(1, List.of(new Genre(1, null), new Genre(2, null)), 1912));
+        int[] users = IntStream.range(0, 3).map(i -> userService.createUser(User.builder()
+                .email("scoped" + i + "@mail.ru")
+                .login("scoped" + i)
+                .name("scoped" + i)
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build()).getId()).toArray();
+        for (int user : users) {
+            filmService.addLike(drama.getId(), user);
+        }
+        filmService.addLike(both.getId(), users[0]);
+        filmService.addLike(both.getId(), users[1]);
+        filmService.addLike(comedy.getId(), users[0]);
+
+        assertEquals(List.of(drama.getId(), both.getId(), comedy.getId()),
+                ids(filmService.getTopFilms(10, null, 1912)));
+        assertEquals(List.of(both.getId(), comedy.getId()), ids(filmService.getTopFilms(10, 1, 1912)));
+        assertEquals(List.of(drama.getId()), ids(filmService.getTopFilms(1, 2, 1912)));
+
+        // Лайки и смена жанров переставляют фильмы внутри разрезов
+        filmService.deleteLike(both.getId(), users[1]);
+        filmService.addLike(comedy.getId(), users[2]);
+        assertEquals(List.of(comedy.getId(), both.getId()), ids(filmService.getTopFilms(10, 1, 1912)));
+        drama.setGenres(new LinkedHashSet<>(List.of(new Genre(1, null))));
+        filmService.updateFilm(drama);
+        assertEquals(List.of(drama.getId(), comedy.getId(), both.getId()), ids(filmService.getTopFilms(10, 1, 1912)));
+        assertEquals(List.of(both.getId()), ids(filmService.getTopFilms(10, 2, 1912)));
+        assertEquals(List.of(), ids(filmService.getTopFilms(10, 1, 1911)));
+    }
+
+    // Сколько SQL-запросов ждать от хранилища на БД; хранилище в памяти их не делает
+    protected int queries(int jdbcQueries) {
+        return jdbcQueries;
+    }
+
+    private static List<Integer> ids(Collection<Film> films) {
+        return films.stream().map(Film::getId).toList();
+    }
+
+    private static Film film(String name, String description) {
+        Film film = film(1, List.of());
+        film.setName(name);
+        film.setDescription(description);
+        return film;
+    }
+
+    private static Film film(int mpaId, List<Genre> genres, int year) {
+        Film film = film(mpaId, genres);
+        film.setReleaseDate(LocalDate.of(year, 1, 1));
+        return film;
+    }
+
+    private static Film film(int mpaId, List<Genre> genres) {
+        return Film.builder()
+                .name("Film")
+                .description("Description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100L)
+                .mpa(new RatingMpa(mpaId, null))
+                .genres(new LinkedHashSet<>(genres))
+                .build();
+    }
+}
@@ -0,0 +1,13 @@
+package ru.yandex.practicum.filmorate;
+
+import org.springframework.test.context.ActiveProfiles;
+
+// Те же сценарии сервисов, что и в FilmServiceTests, на хранилище в памяти
+@ActiveProfiles("memory")
+class InMemoryFilmServiceTests extends FilmServiceTests {
+
+    @Override
+    protected int queries(int jdbcQueries) {
+        return 0;
+    }
+}
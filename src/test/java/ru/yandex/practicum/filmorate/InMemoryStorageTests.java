@@ -0,0 +1,165 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.CursorPage;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.RatingMpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.StripedIntMap;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("memory")
+class InMemoryStorageTests {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private FilmStorage filmStorage;
+
+    @Autowired
+    private FilmService filmService;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void contextStartsWithoutDataSource() {
+        assertNull(context.getBeanProvider(DataSource.class).getIfAvailable());
+        assertInstanceOf(InMemoryFilmStorage.class, filmStorage);
+    }
+
+    @Test
+    void filmsFollowStorageContract() {
+        Film created = filmService.addFilm(film(List.of(new Genre(3, null), new Genre(1, null))));
+        assertEquals(List.of(1, 3), filmService.getFilmById(created.getId()).getGenres().stream()
+                .map(Genre::getId)
+                .toList());
+        assertEquals("Комедия", filmService.getFilmById(created.getId()).getGenres().iterator().next().getName());
+
+        Film loaded = filmService.getFilmById(created.getId());
+        loaded.setName("Changed by caller");
+        assertEquals("Film", filmService.getFilmById(created.getId()).getName());
+
+        created.setName("Updated");
+        created.setGenres(new LinkedHashSet<>());
+        filmService.updateFilm(created);
+        assertEquals("Updated", filmService.getFilmById(created.getId()).getName());
+        assertTrue(filmService.getFilmById(created.getId()).getGenres().isEmpty());
+
+        assertThrows(NotFoundException.class, () -> filmService.getFilmById(9999));
+        Film unknown = film(List.of());
+        unknown.setId(9999);
+        assertThrows(NotFoundException.class, () -> filmService.updateFilm(unknown));
+    }
+
+    @Test
+    void likesDrivePopularFilms() {
+        Film first = filmService.addFilm(film(List.of()));
+        Film second = filmService.addFilm(film(List.of()));
+        User user1 = userService.createUser(user("liker1"));
+        User user2 = userService.createUser(user("liker2"));
+
+        filmService.addLike(second.getId(), user1.getId());
+        filmService.addLike(second.getId(), user2.getId());
+        filmService.addLike(second.getId(), user2.getId());
+        filmService.addLike(first.getId(), user1.getId());
+        assertEquals(List.of(second.getId(), first.getId()), popularAmong(first.getId(), second.getId()));
+
+        filmService.deleteLike(second.getId(), user1.getId());
+        filmService.deleteLike(second.getId(), user2.getId());
+        assertEquals(List.of(first.getId(), second.getId()), popularAmong(first.getId(), second.getId()));
+        assertThrows(NotFoundException.class, () -> filmService.addLike(first.getId(), 9999));
+    }
+
+    @Test
+    void friendsAndPagesWorkWithoutDatabase() {
+        User user = userService.createUser(user("owner"));
+        User other = userService.createUser(user("other"));
+        User common = userService.createUser(user("common"));
+        userService.addFriend(user.getId(), common.getId());
+        userService.addFriend(other.getId(), common.getId());
+        userService.addFriend(user.getId(), other.getId());
+
+        assertEquals(List.of(other.getId(), common.getId()), userService.getAllFriends(user.getId()).stream()
+                .map(User::getId)
+                .toList());
+        assertEquals(List.of(common.getId()), userService.getCommonFriends(user.getId(), other.getId()).stream()
+                .map(User::getId)
+                .toList());
+        assertThrows(NotFoundException.class, () -> userService.addFriend(user.getId(), 9999));
+
+        CursorPage<User> page = userService.getUsersPage(user.getId(), 1);
+        assertEquals(List.of(other.getId()), page.getItems().stream().map(User::getId).toList());
+        assertEquals(other.getId(), page.getNextCursor());
+    }
+
+    @Test
+    void stripedIntMapSurvivesGrowthAndRemovals() {
+        StripedIntMap<Integer> map = new StripedIntMap<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(5_000) - 100;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value, map.get(key)));
+        Map<Integer, Integer> visited = new HashMap<>();
+        map.forEach((value, key) -> visited.put(key, value));
+        assertEquals(expected, visited);
+    }
+
+    private List<Integer> popularAmong(int... filmIds) {
+        List<Integer> ids = Arrays.stream(filmIds).boxed().toList();
+        return filmService.getTopFilms(Integer.MAX_VALUE).stream()
+                .map(Film::getId)
+                .filter(ids::contains)
+                .toList();
+    }
+
+    private static Film film(List<Genre> genres) {
+        return Film.builder()
+                .name("Film")
+                .description("Description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100L)
+                .mpa(new RatingMpa(1, null))
+                .genres(new LinkedHashSet<>(genres))
+                .build();
+    }
+
+    private static User user(String login) {
+        return User.builder()
+                .email(login + "@mail.ru")
+                .login(login)
+                .name(login)
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+}
@@ -0,0 +1,132 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.RatingMpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.CoLikeIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.PopularFilmsIndex;
+import ru.yandex.practicum.filmorate.storage.like.LikeWriteBehindQueue;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class LikeWriteBehindQueueTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private FilmStorage filmStorage;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @Autowired
+    private PopularFilmsIndex popularFilmsIndex;
+
+    @Autowired
+    private CoLikeIndex coLikeIndex;
+
+    @Test
+    void flushWritesCoalescedLikesIdempotently() {
+        LikeWriteBehindQueue queue = new LikeWriteBehindQueue(jdbcTemplate, popularFilmsIndex, coLikeIndex,
+                true, 100, 2, Duration.ofHours(1));
+        int filmId = filmStorage.createFilm(film()).getId();
+        List<Integer> users = List.of(user("wb1"), user("wb2"), user("wb3"));
+
+        queue.addLike(filmId, users.get(0));
+        queue.addLike(filmId, users.get(0));
+        queue.addLike(filmId, users.get(1));
+        queue.addLike(filmId, users.get(2));
+        queue.deleteLike(filmId, users.get(2));
+        assertEquals(3, queue.getDepth());
+
+        queue.flush();
+        queue.addLike(filmId, users.get(1));
+        queue.flush();
+
+        assertEquals(0, queue.getDepth());
+        assertEquals(2, likesInDb(filmId));
+        assertEquals(2, popularFilmsIndex.getLikes(filmId));
+        assertTrue(queue.getFlushes() >= 2);
+    }
+
+    @Test
+    void fullQueueIsFlushedByCaller() {
+        LikeWriteBehindQueue queue = new LikeWriteBehindQueue(jdbcTemplate, popularFilmsIndex, coLikeIndex,
+                true, 2, 10, Duration.ofHours(1));
+        int filmId = filmStorage.createFilm(film()).getId();
+
+        queue.addLike(filmId, user("bp1"));
+        queue.addLike(filmId, user("bp2"));
+
+        assertEquals(0, queue.getDepth());
+        assertEquals(1, queue.getBackpressureFlushes());
+        assertEquals(2, likesInDb(filmId));
+    }
+
+    @Test
+    void flushDrainsOnlyEntriesQueuedBeforeIt() {
+        int filmId = filmStorage.createFilm(film()).getId();
+        int[] users = new int[6];
+        for (int i = 0; i < users.length; i++) {
+            users[i] = user("steady" + i);
+        }
+        LikeWriteBehindQueue[] holder = new LikeWriteBehindQueue[1];
+        int[] produced = {3};
+        // Каждая пачка, ушедшая в БД, приносит в очередь новый лайк — как непрерывный поток запросов
+        JdbcTemplate producing = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+                if (produced[0] < users.length) {
+                    holder[0].addLike(filmId, users[produced[0]++]);
+                }
+                return super.batchUpdate(sql, batchArgs);
+            }
+        };
+        LikeWriteBehindQueue queue = new LikeWriteBehindQueue(producing, popularFilmsIndex, coLikeIndex,
+                true, 100, 1, Duration.ofHours(1));
+        holder[0] = queue;
+        for (int i = 0; i < 3; i++) {
+            queue.addLike(filmId, users[i]);
+        }
+
+        queue.flush();
+
+        assertEquals(3, queue.getFlushedOperations());
+        assertEquals(3, queue.getDepth());
+    }
+
+    private int likesInDb(int filmId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM likes WHERE film_id = ?", Integer.class, filmId);
+    }
+
+    private int user(String login) {
+        return userStorage.createUser(User.builder()
+                .email(login + "@mail.ru")
+                .login(login)
+                .name(login)
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build()).getId();
+    }
+
+    private static Film film() {
+        return Film.builder()
+                .name("Film")
+                .description("Description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100L)
+                .mpa(new RatingMpa(1, null))
+                .build();
+    }
+}
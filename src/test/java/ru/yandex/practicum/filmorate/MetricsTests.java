@@ -0,0 +1,46 @@
+package ru.yandex.practicum.filmorate;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class MetricsTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void requestRecordsStorageTimingsAndQueryCount() throws Exception {
+        mockMvc.perform(get("/films")).andExpect(status().isOk());
+
+        Timer storageCalls = meterRegistry.find("filmorate.storage.calls")
+                .tags("storage", "FilmDbStorage", "method", "getAllFilms", "exception", "none")
+                .timer();
+        assertNotNull(storageCalls);
+        assertTrue(storageCalls.count() > 0);
+        assertNotNull(meterRegistry.find("filmorate.storage.rows")
+                .tags("storage", "FilmDbStorage", "method", "getAllFilms")
+                .summary());
+
+        DistributionSummary queries = meterRegistry.find("filmorate.http.jdbc.queries")
+                .tags("method", "GET", "uri", "/films")
+                .summary();
+        assertNotNull(queries);
+        assertTrue(queries.max() > 0);
+    }
+}
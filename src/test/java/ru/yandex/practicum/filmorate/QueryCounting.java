@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate;
+
+import ru.yandex.practicum.filmorate.metrics.QueryCountingDataSource;
+
+// Число JDBC-запросов, выполненных текущим потоком во время действия
+final class QueryCounting {
+
+    private QueryCounting() {
+    }
+
+    static int countQueries(Runnable action) {
+        int before = QueryCountingDataSource.getThreadQueries();
+        action.run();
+        return QueryCountingDataSource.getThreadQueries() - before;
+    }
+}
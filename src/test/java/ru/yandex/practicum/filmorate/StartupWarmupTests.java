@@ -0,0 +1,68 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import ru.yandex.practicum.filmorate.config.StartupWarmup;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "filmorate.warmup.requests=50")
+class StartupWarmupTests {
+
+    @Autowired
+    private StartupWarmup startupWarmup;
+
+    @Autowired
+    private ApplicationAvailability availability;
+
+    @Autowired
+    private ReadinessRecorder readinessRecorder;
+
+    @Test
+    void readinessIsReportedAfterAllWarmupPhases() {
+        assertEquals(List.of("справочники", "пул соединений", "популярные фильмы", "HTTP"),
+                List.copyOf(startupWarmup.getPhases().keySet()));
+        // Сколько этапов прогрева было пройдено к моменту каждой смены готовности
+        assertEquals(List.of(ReadinessState.REFUSING_TRAFFIC + ":0", ReadinessState.ACCEPTING_TRAFFIC + ":4"),
+                readinessRecorder.events);
+        assertEquals(ReadinessState.ACCEPTING_TRAFFIC, availability.getReadinessState());
+    }
+
+    static class ReadinessRecorder {
+
+        private final ObjectProvider<StartupWarmup> startupWarmup;
+        private final List<String> events = new CopyOnWriteArrayList<>();
+
+        ReadinessRecorder(ObjectProvider<StartupWarmup> startupWarmup) {
+            this.startupWarmup = startupWarmup;
+        }
+
+        @EventListener
+        void onAvailabilityChange(AvailabilityChangeEvent<?> event) {
+            if (event.getState() instanceof ReadinessState state) {
+                events.add(state + ":" + startupWarmup.getObject().getPhases().size());
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class ReadinessRecorderConfig {
+
+        @Bean
+        ReadinessRecorder readinessRecorder(ObjectProvider<StartupWarmup> startupWarmup) {
+            return new ReadinessRecorder(startupWarmup);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.FriendsIndex;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class UserDbStorageTests {
+
+    // Эталон: пересечение списков друзей, посчитанное самой БД
+    private static final String COMMON_FRIENDS_SQL = "SELECT f1.friend_id FROM friends f1 "
+            + "JOIN friends f2 ON f1.friend_id = f2.friend_id "
+            + "WHERE f1.user_id = ? AND f2.user_id = ? "
+            + "ORDER BY f1.friend_id";
+
+    // Эталон рекомендаций: друзья друзей без самого пользователя и его друзей, по числу общих друзей
+    private static final String SUGGESTIONS_SQL = "SELECT f2.friend_id FROM friends f1 "
+            + "JOIN friends f2 ON f2.user_id = f1.friend_id "
+            + "WHERE f1.user_id = ? AND f2.friend_id <> ? "
+            + "AND f2.friend_id NOT IN (SELECT friend_id FROM friends WHERE user_id = ?) "
+            + "GROUP BY f2.friend_id "
+            + "ORDER BY COUNT(*) DESC, f2.friend_id "
+            + "LIMIT ?";
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void getCommonFriendsMatchesSqlIntersection() {
+        List<Integer> users = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            users.add(userStorage.createUser(user("graph" + i)).getId());
+        }
+        Random random = new Random(42);
+        for (int userId : users) {
+            for (int friendId : users) {
+                if (userId != friendId && random.nextInt(3) == 0) {
+                    userStorage.addFriend(userId, friendId);
+                }
+            }
+        }
+        userStorage.removeFriend(users.get(0), users.get(1));
+        userStorage.addFriend(users.get(0), users.get(1));
+        userStorage.removeFriend(users.get(2), users.get(3));
+
+        for (int userId : users) {
+            for (int otherId : users) {
+                List<Integer> expected = jdbcTemplate.queryForList(COMMON_FRIENDS_SQL, Integer.class, userId, otherId);
+                List<Integer> actual = userStorage.getCommonFriends(userId, otherId).stream()
+                        .map(User::getId)
+                        .toList();
+                assertEquals(expected, actual, "Общие друзья " + userId + " и " + otherId);
+            }
+        }
+    }
+
+    @Test
+    void friendSuggestionsMatchSqlTwoHopJoin() {
+        List<Integer> users = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            users.add(userStorage.createUser(user("suggest" + i)).getId());
+        }
+        Random random = new Random(7);
+        for (int userId : users) {
+            for (int friendId : users) {
+                if (userId != friendId && random.nextInt(4) == 0) {
+                    userStorage.addFriend(userId, friendId);
+                }
+            }
+        }
+        userStorage.removeFriend(users.get(0), users.get(1));
+
+        for (int userId : users) {
+            List<Integer> expected = jdbcTemplate.queryForList(SUGGESTIONS_SQL, Integer.class, userId, userId, userId, 5);
+            List<Integer> actual = userStorage.getFriendSuggestions(userId, 5).stream()
+                    .map(User::getId)
+                    .toList();
+            assertEquals(expected, actual, "Рекомендации для " + userId);
+        }
+    }
+
+    // Окрестность больше порога сортировки считается параллельно по диапазонам id
+    @Test
+    void parallelFriendSuggestionsMatchBruteForce() {
+        Random random = new Random(42);
+        List<int[]> pairs = new ArrayList<>();
+        for (int friend = 1; friend <= 300; friend++) {
+            pairs.add(new int[]{0, friend});
+            for (int i = 0; i < 300; i++) {
+                pairs.add(new int[]{friend, 1 + random.nextInt(50_000)});
+            }
+        }
+        FriendsIndex index = new FriendsIndex();
+        index.rebuild(pairs);
+
+        Map<Integer, Integer> mutual = new HashMap<>();
+        for (int friend : index.getFriends(0)) {
+            for (int candidate : index.getFriends(friend)) {
+                if (!index.isFriend(0, candidate)) {
+                    mutual.merge(candidate, 1, Integer::sum);
+                }
+            }
+        }
+        List<Integer> expected = mutual.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(20)
+                .map(Map.Entry::getKey)
+                .toList();
+        assertEquals(expected, Arrays.stream(index.getSuggestions(0, 20)).boxed().toList());
+    }
+
+    @Test
+    void concurrentAddAndRemoveKeepIndexInSyncWithTable() throws Exception {
+        int userId = userStorage.createUser(user("race1")).getId();
+        int friendId = userStorage.createUser(user("race2")).getId();
+        CountDownLatch inserted = new CountDownLatch(1);
+        // Вставка в friends задерживается, чтобы удаление успело пройти до правки индекса
+        JdbcTemplate slowInsert = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public int update(String sql, Object... args) {
+                int updated = super.update(sql, args);
+                if (sql.startsWith("INSERT INTO friends")) {
+                    inserted.countDown();
+                    try {
+                        Thread.sleep(200);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return updated;
+            }
+        };
+        FriendsIndex index = new FriendsIndex();
+        UserDbStorage storage = new UserDbStorage(slowInsert, index);
+
+        Thread adder = new Thread(() -> storage.addFriend(userId, friendId));
+        adder.start();
+        inserted.await();
+        storage.removeFriend(userId, friendId);
+        adder.join();
+
+        int rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM friends WHERE user_id = ? AND friend_id = ?",
+                Integer.class, userId, friendId);
+        assertEquals(rows > 0, index.isFriend(userId, friendId));
+    }
+
+    private static User user(String login) {
+        return User.builder()
+                .email(login + "@mail.ru")
+                .login(login)
+                .name(login)
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+}
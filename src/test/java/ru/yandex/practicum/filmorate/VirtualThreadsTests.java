@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import ru.yandex.practicum.filmorate.config.ConnectionLimitingDataSource;
+import ru.yandex.practicum.filmorate.service.GenreService;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@SpringBootTest(properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadsTests {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private GenreService genreService;
+
+    @Test
+    void limiterTakesHikariDefaultPoolSizeBeforePoolStarts() {
+        DataSource current = dataSource;
+        while (!(current instanceof ConnectionLimitingDataSource)) {
+            current = ((DelegatingDataSource) current).getTargetDataSource();
+        }
+        assertEquals(10, ((ConnectionLimitingDataSource) current).getAvailablePermits());
+        assertFalse(genreService.getAllGenres().isEmpty());
+    }
+}